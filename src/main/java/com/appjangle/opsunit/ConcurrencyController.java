@@ -0,0 +1,64 @@
+package com.appjangle.opsunit;
+
+/**
+ * Determines how many jobs a {@link JobManager} may run at the same time.
+ * 
+ */
+public interface ConcurrencyController {
+
+	/**
+	 * Notified when the limit, the minimum priority or the saturation of the
+	 * host changed.
+	 */
+	public interface ChangeListener {
+
+		public void onChange();
+
+	}
+
+	/**
+	 * 
+	 * @return The highest value {@link #getLimit()} will ever return.
+	 */
+	public int getMaxLimit();
+
+	/**
+	 * 
+	 * @return Number of jobs, which may currently be run at the same time.
+	 *         At least 1.
+	 */
+	public int getLimit();
+
+	/**
+	 * 
+	 * @return Due jobs with a priority lower than this value are deferred
+	 *         until the returned value is lowered again or until they are
+	 *         starving. See
+	 *         {@link com.appjangle.opsunit.configuration.Priority}.
+	 */
+	public int getMinPriority();
+
+	/**
+	 * 
+	 * @return <code>true</code> if the host is currently under pressure,
+	 *         so that results of tests might be affected.
+	 */
+	public boolean isSaturated();
+
+	/**
+	 * Called when the job manager is started.
+	 * 
+	 * @param listener
+	 *            To be notified whenever {@link #getLimit()},
+	 *            {@link #getMinPriority()} or {@link #isSaturated()} changed,
+	 *            so that deferred jobs can be run and results of running jobs
+	 *            can be marked as affected by pressure on the host.
+	 */
+	public void start(ChangeListener listener);
+
+	/**
+	 * Called when the job manager is stopped.
+	 */
+	public void stop();
+
+}
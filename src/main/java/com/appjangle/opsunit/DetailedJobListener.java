@@ -0,0 +1,102 @@
+package com.appjangle.opsunit;
+
+/**
+ * Optional extension of {@link JobListener} to receive detailed events, which
+ * occur while jobs are run. Listeners, which only implement
+ * {@link JobListener}, do not receive these events.
+ * <p>
+ * {@link com.appjangle.opsunit.listener.DefaultJobListener} implements this
+ * interface, so that subclasses can override the events they are interested
+ * in.
+ * 
+ */
+public interface DetailedJobListener extends JobListener {
+
+	/**
+	 * Called when a job became due while its previous run was still running
+	 * or waiting to be run, and the run was dropped or merged into a catch-up
+	 * run. See {@link OverrunPolicy}.
+	 * 
+	 * @param j
+	 * @param missedRuns
+	 *            Total number of runs dropped for this job so far.
+	 * @param coalescedRuns
+	 *            Total number of runs merged into a catch-up run for this job
+	 *            so far.
+	 */
+	public void onOverrun(Job j, long missedRuns, long coalescedRuns);
+
+	/**
+	 * Called right before a test method is started.
+	 * 
+	 * @param j
+	 * @param test
+	 *            The test class the method belongs to
+	 * @param method
+	 */
+	public void onStartTestMethod(Job j, Class<?> test, String method);
+
+	/**
+	 * Called for every failure of a test method as soon as it occurs. Called
+	 * before {@link #onTestFailed(Job, Class, String, Throwable)} is called
+	 * for the test class.
+	 * 
+	 * @param j
+	 * @param test
+	 * @param method
+	 * @param message
+	 * @param t
+	 */
+	public void onTestMethodFailed(Job j, Class<?> test, String method,
+			String message, Throwable t);
+
+	/**
+	 * Called when a test method has been completed, whether it passed or
+	 * failed.
+	 * 
+	 * @param j
+	 * @param test
+	 * @param method
+	 * @param duration
+	 *            Time in ms the method took to run.
+	 */
+	public void onTestMethodCompleted(Job j, Class<?> test, String method,
+			long duration);
+
+	/**
+	 * Called when a probe has been run.
+	 * 
+	 * @param j
+	 * @param probe
+	 * @param result
+	 *            {@link Probe#PASSED} or the failure code returned by the
+	 *            probe.
+	 * @param latency
+	 *            Time in ms the probe took to run.
+	 */
+	public void onProbeCompleted(Job j, Probe probe, int result, long latency);
+
+	/**
+	 * Called when a job failed but its responses are not run yet, since its
+	 * {@link HealthPolicy} tolerates the failure.
+	 * 
+	 * @param j
+	 * @param t
+	 *            The exception reported for the failure or <code>null</code>
+	 *            if a {@link Probe} failed, whose result is reported through
+	 *            {@link #onProbeCompleted(Job, Probe, int, long)}.
+	 */
+	public void onTransientFailure(Job j, Throwable t);
+
+	/**
+	 * Called when a job starts alternating between passing and failing more
+	 * often than allowed by its {@link HealthPolicy}.
+	 * 
+	 * @param j
+	 * @param transitions
+	 *            Number of changes between passed and failed runs within the
+	 *            window of the health policy.
+	 */
+	public void onJobFlapping(Job j, int transitions);
+
+}
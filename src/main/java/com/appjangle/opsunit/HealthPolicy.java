@@ -0,0 +1,113 @@
+package com.appjangle.opsunit;
+
+/**
+ * Determines how many failures of a job are tolerated before its responses
+ * are run, and how many passed runs are required for the job to be
+ * considered healthy again.
+ * 
+ */
+public class HealthPolicy {
+
+	/**
+	 * Maximum number of runs, which can be considered.
+	 */
+	public static final int MAX_WINDOW = 64;
+
+	private final int failureThreshold;
+	private final int window;
+	private final int recoveryPasses;
+	private final int flapThreshold;
+
+	/**
+	 * 
+	 * @return Number of failed runs within the window required to run the
+	 *         responses of the job.
+	 */
+	public int getFailureThreshold() {
+		return failureThreshold;
+	}
+
+	/**
+	 * 
+	 * @return Number of most recent runs considered.
+	 */
+	public int getWindow() {
+		return window;
+	}
+
+	/**
+	 * 
+	 * @return Number of consecutive passed runs required for a failed job to
+	 *         be considered healthy again.
+	 */
+	public int getRecoveryPasses() {
+		return recoveryPasses;
+	}
+
+	/**
+	 * 
+	 * @return Number of changes between passed and failed runs within the
+	 *         window, at which the job is considered to be flapping. 0 if
+	 *         flapping should not be detected.
+	 */
+	public int getFlapThreshold() {
+		return flapThreshold;
+	}
+
+	/**
+	 * Responses are run on every failure (default).
+	 * 
+	 * @return
+	 */
+	public static HealthPolicy immediate() {
+		return new HealthPolicy(1, 1, 1, 0);
+	}
+
+	/**
+	 * 
+	 * @param job
+	 * @return The policy declared by the job or {@link #immediate()}.
+	 */
+	public static HealthPolicy of(final Job job) {
+		if (job instanceof TolerantJob) {
+			return ((TolerantJob) job).getHealthPolicy();
+		}
+		return immediate();
+	}
+
+	/**
+	 * 
+	 * @param failureThreshold
+	 *            Run responses once this many of the last runs have failed.
+	 * @param window
+	 *            Number of last runs to consider (at most
+	 *            {@link #MAX_WINDOW}).
+	 * @param recoveryPasses
+	 *            Consecutive passes required to recover.
+	 * @param flapThreshold
+	 *            Changes between passes and failures within the window to be
+	 *            reported as flapping, 0 to disable.
+	 */
+	public HealthPolicy(final int failureThreshold, final int window,
+			final int recoveryPasses, final int flapThreshold) {
+		super();
+		if (window < 1 || window > MAX_WINDOW) {
+			throw new IllegalArgumentException("Window must be between 1 and "
+					+ MAX_WINDOW + " but was " + window);
+		}
+		if (failureThreshold < 1 || failureThreshold > window) {
+			throw new IllegalArgumentException(
+					"Failure threshold must be between 1 and the window size but was "
+							+ failureThreshold);
+		}
+		if (recoveryPasses < 1) {
+			throw new IllegalArgumentException(
+					"At least one pass is required to recover.");
+		}
+		this.failureThreshold = failureThreshold;
+		this.window = window;
+		this.recoveryPasses = recoveryPasses;
+		this.flapThreshold = flapThreshold;
+	}
+
+}
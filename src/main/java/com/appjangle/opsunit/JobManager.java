@@ -1,9 +1,17 @@
 package com.appjangle.opsunit;
 
+import java.util.List;
+
 import one.utils.server.ShutdownCallback;
 
 public interface JobManager {
 
+	public interface StatusCallback {
+		public void onStatus(RunStatus status);
+
+		public void onFailure(Throwable t);
+	}
+
 	/**
 	 * Start running the jobs configured for this manager in their respective
 	 * intervals.
@@ -20,4 +28,98 @@ public interface JobManager {
 	 */
 	public void stop(ShutdownCallback callback);
 
+	/**
+	 * The outcomes of the last runs of the jobs managed by this manager.
+	 * 
+	 * @return
+	 */
+	public StatusCache getStatus();
+
+	/**
+	 * Runs the job right away unless its last run completed within
+	 * <code>maxAge</code> ms. Concurrent requests for the same job are served
+	 * by a single run.
+	 * <p>
+	 * While the {@link ConcurrencyController} of the manager reports pressure
+	 * on the host, jobs with a priority below
+	 * {@link ConcurrencyController#getMinPriority()} (such as
+	 * {@link com.appjangle.opsunit.configuration.Priority#LOW} jobs) are not
+	 * run right away. The run, and with it the callback, is deferred until
+	 * the pressure clears or the job starts starving. This also applies to
+	 * runs requested through <code>POST /jobs/{name}/run</code> of the status
+	 * server.
+	 * 
+	 * @param job
+	 * @param maxAge
+	 *            Maximum age in ms of a cached status to be reported instead
+	 *            of running the job.
+	 * @param callback
+	 *            Called with the status of the job.
+	 */
+	public void runNow(Job job, int maxAge, StatusCallback callback);
+
+	/**
+	 * 
+	 * @return The jobs managed by this manager.
+	 */
+	public List<Job> getJobs();
+
+	/**
+	 * 
+	 * @param job
+	 * @return Whether the job is currently running, waiting to be run or
+	 *         idle.
+	 * @throws IllegalArgumentException
+	 *             If the job is not managed by this manager.
+	 */
+	public JobState getState(Job job);
+
+	/**
+	 * 
+	 * @return The number of jobs, which are due but waiting for other jobs
+	 *         to complete.
+	 */
+	public int getQueueDepth();
+
+	/**
+	 * Stops scheduling the job in its interval until {@link #resume(Job)} is
+	 * called. Runs requested through {@link #runNow(Job, int, StatusCallback)}
+	 * are still performed. Runs kept by the {@link OverrunPolicy} of the job
+	 * are dropped.
+	 * 
+	 * @param job
+	 */
+	public void pause(Job job);
+
+	public void resume(Job job);
+
+	public boolean isPaused(Job job);
+
+	/**
+	 * Sets what happens when the job becomes due while its previous run has
+	 * not been completed. Defaults to {@link OverrunPolicy#skip()}.
+	 * 
+	 * @param job
+	 * @param policy
+	 */
+	public void setOverrunPolicy(Job job, OverrunPolicy policy);
+
+	public OverrunPolicy getOverrunPolicy(Job job);
+
+	/**
+	 * 
+	 * @param job
+	 * @return The number of runs of the job, which have been dropped since
+	 *         they became due while the job was still running.
+	 */
+	public long getMissedRuns(Job job);
+
+	/**
+	 * 
+	 * @param job
+	 * @return The number of runs of the job, which have been merged into a
+	 *         catch-up run.
+	 */
+	public long getCoalescedRuns(Job job);
+
 }
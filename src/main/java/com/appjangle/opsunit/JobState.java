@@ -0,0 +1,24 @@
+package com.appjangle.opsunit;
+
+/**
+ * The state of a job within a {@link JobManager}.
+ * 
+ */
+public enum JobState {
+
+	/**
+	 * The job is waiting for its next due time.
+	 */
+	IDLE,
+
+	/**
+	 * The job is due and waiting for other jobs to complete.
+	 */
+	SCHEDULED,
+
+	/**
+	 * The job is currently running.
+	 */
+	RUNNING
+
+}
@@ -5,6 +5,8 @@ import java.util.List;
 import one.utils.concurrent.Concurrency;
 
 import com.appjangle.opsunit.internal.DefaultJobManager;
+import com.appjangle.opsunit.internal.FixedConcurrencyController;
+import com.appjangle.opsunit.internal.ProbeJobExecutor;
 
 public class OpsUnit {
 
@@ -15,4 +17,66 @@ public class OpsUnit {
 				context);
 	}
 
+	/**
+	 * 
+	 * @param jobs
+	 * @param concurrency
+	 * @param executorFactory
+	 * @param context
+	 * @param concurrencyController
+	 *            Determines how many jobs are run at the same time.
+	 * @return
+	 */
+	public static JobManager createManager(final List<Job> jobs,
+			final Concurrency concurrency,
+			final JobExecutorFactory executorFactory,
+			final JobContext context,
+			final ConcurrencyController concurrencyController) {
+		return new DefaultJobManager(jobs, concurrency, executorFactory,
+				context, concurrencyController);
+	}
+
+	/**
+	 * Creates a controller, which runs a fixed number of jobs at the same
+	 * time, regardless of the load of the host.
+	 * 
+	 * @param limit
+	 *            Number of jobs run at the same time, at least 1.
+	 * @return
+	 */
+	public static ConcurrencyController fixedConcurrency(final int limit) {
+		return new FixedConcurrencyController(limit);
+	}
+
+	/**
+	 * Creates a manager for jobs, which only consist of {@link Probe}s.
+	 * 
+	 * @param jobs
+	 * @param concurrency
+	 * @param context
+	 * @return
+	 * @throws IllegalArgumentException
+	 *             If one of the jobs contains test classes, which cannot be
+	 *             run without JUnit.
+	 */
+	public static JobManager createProbeManager(final List<Job> jobs,
+			final Concurrency concurrency, final JobContext context) {
+		for (final Job job : jobs) {
+			if (job.getTests().size() > 0) {
+				throw new IllegalArgumentException(
+						"A probe manager cannot run the test classes of job: "
+								+ job.getName());
+			}
+		}
+
+		return createManager(jobs, concurrency, new JobExecutorFactory() {
+
+			@Override
+			public JobExecutor createExecutor(final Job job,
+					final JobContext context) {
+				return new ProbeJobExecutor(job, context);
+			}
+		}, context);
+	}
+
 }
@@ -0,0 +1,76 @@
+package com.appjangle.opsunit;
+
+/**
+ * Determines what happens when a job becomes due again while its previous
+ * run is still running or waiting to be run.
+ * 
+ */
+public class OverrunPolicy {
+
+	public static enum Type {
+		/**
+		 * The run is dropped and counted as missed.
+		 */
+		SKIP,
+
+		/**
+		 * One catch-up run is performed after the current run. Further runs
+		 * becoming due in the meantime are merged into the catch-up run and
+		 * counted as coalesced.
+		 */
+		COALESCE,
+
+		/**
+		 * Up to a maximum number of runs are queued and performed one after
+		 * another. Runs exceeding the maximum are counted as missed.
+		 */
+		QUEUE
+	}
+
+	private final Type type;
+	private final int maxQueued;
+
+	public Type getType() {
+		return type;
+	}
+
+	/**
+	 * 
+	 * @return The maximum number of runs, which are kept to be run after the
+	 *         current run.
+	 */
+	public int getMaxQueued() {
+		return maxQueued;
+	}
+
+	@Override
+	public String toString() {
+		if (type == Type.QUEUE) {
+			return type + "(" + maxQueued + ")";
+		}
+		return type.toString();
+	}
+
+	public static OverrunPolicy skip() {
+		return new OverrunPolicy(Type.SKIP, 0);
+	}
+
+	public static OverrunPolicy coalesce() {
+		return new OverrunPolicy(Type.COALESCE, 1);
+	}
+
+	public static OverrunPolicy queue(final int maxQueued) {
+		if (maxQueued < 1) {
+			throw new IllegalArgumentException(
+					"At least one run must be allowed to be queued.");
+		}
+		return new OverrunPolicy(Type.QUEUE, maxQueued);
+	}
+
+	private OverrunPolicy(final Type type, final int maxQueued) {
+		super();
+		this.type = type;
+		this.maxQueued = maxQueued;
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.appjangle.opsunit;
+
+/**
+ * A job with a priority, which determines the order in which jobs are run
+ * when more jobs are due than can be run at the same time.
+ * <p>
+ * Jobs not implementing this interface have the priority
+ * {@link com.appjangle.opsunit.configuration.Priority#NORMAL}.
+ * 
+ */
+public interface PrioritizedJob extends Job {
+
+	/**
+	 * Priority of this job, higher values are run first. See
+	 * {@link com.appjangle.opsunit.configuration.Priority}.
+	 * 
+	 * @return
+	 */
+	public int getPriority();
+
+}
@@ -0,0 +1,33 @@
+package com.appjangle.opsunit;
+
+/**
+ * A lightweight check, which is run without JUnit, for instance to test
+ * whether a port is reachable.
+ * <p>
+ * Probes report their outcome as a result code rather than by throwing
+ * exceptions. Probes are responsible for limiting their own running time,
+ * for instance by using socket timeouts.
+ * 
+ */
+public interface Probe {
+
+	public static final int PASSED = 0;
+	public static final int FAILED = 1;
+	public static final int TIMEOUT = 2;
+	public static final int UNREACHABLE = 3;
+
+	/**
+	 * An arbitrary name for this probe.
+	 * 
+	 * @return
+	 */
+	public String getName();
+
+	/**
+	 * Performs the check.
+	 * 
+	 * @return {@link #PASSED} or a non-zero code describing the failure.
+	 */
+	public int run();
+
+}
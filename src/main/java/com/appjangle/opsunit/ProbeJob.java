@@ -0,0 +1,18 @@
+package com.appjangle.opsunit;
+
+import java.util.List;
+
+/**
+ * A job, which runs {@link Probe}s in addition to its unit tests.
+ * 
+ */
+public interface ProbeJob extends Job {
+
+	/**
+	 * Probes to be run for this job, before its unit tests are run.
+	 * 
+	 * @return
+	 */
+	public List<Probe> getProbes();
+
+}
@@ -0,0 +1,86 @@
+package com.appjangle.opsunit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The aggregated result of running a number of jobs once.
+ * 
+ */
+public class RunReport {
+
+	private final Map<Job, RunStatus> statuses;
+	private final long duration;
+
+	/**
+	 * 
+	 * @return <code>true</code> if all jobs have passed.
+	 */
+	public boolean isPassed() {
+		for (final RunStatus status : statuses.values()) {
+			if (!status.isPassed()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 
+	 * @return All jobs included in this report in the order they were
+	 *         supplied.
+	 */
+	public List<Job> getJobs() {
+		return new ArrayList<Job>(statuses.keySet());
+	}
+
+	public List<Job> getFailedJobs() {
+		final List<Job> failed = new ArrayList<Job>();
+		for (final Map.Entry<Job, RunStatus> e : statuses.entrySet()) {
+			if (!e.getValue().isPassed()) {
+				failed.add(e.getKey());
+			}
+		}
+		return failed;
+	}
+
+	public RunStatus getStatus(final Job job) {
+		return statuses.get(job);
+	}
+
+	/**
+	 * 
+	 * @return Time in ms from starting the first job until all jobs were
+	 *         completed.
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(isPassed() ? "PASSED" : "FAILED").append(" in ")
+				.append(duration).append(" ms");
+		for (final Map.Entry<Job, RunStatus> e : statuses.entrySet()) {
+			sb.append("\n  ").append(e.getKey().getName()).append(": ")
+					.append(e.getValue());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 
+	 * @param statuses
+	 *            Status for every job, in the order the jobs were supplied.
+	 * @param duration
+	 */
+	public RunReport(final Map<Job, RunStatus> statuses, final long duration) {
+		super();
+		this.statuses = Collections.unmodifiableMap(statuses);
+		this.duration = duration;
+	}
+
+}
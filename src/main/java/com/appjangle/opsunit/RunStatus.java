@@ -0,0 +1,91 @@
+package com.appjangle.opsunit;
+
+/**
+ * The outcome of the last run of a job or of an individual test.
+ * <p>
+ * Instances are immutable and can be shared freely between threads.
+ * 
+ */
+public class RunStatus {
+
+	public static enum Outcome {
+		PASSED, FAILED
+	}
+
+	private final Outcome outcome;
+	private final long timestamp;
+	private final long duration;
+	private final String failureMessage;
+	private final boolean hostSaturated;
+
+	/**
+	 * 
+	 * @return Whether the run passed or failed.
+	 */
+	public Outcome getOutcome() {
+		return outcome;
+	}
+
+	public boolean isPassed() {
+		return outcome == Outcome.PASSED;
+	}
+
+	/**
+	 * 
+	 * @return Time in ms when the run completed.
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * 
+	 * @return Duration of the run in ms.
+	 */
+	public long getDuration() {
+		return duration;
+	}
+
+	/**
+	 * 
+	 * @return The message reported for the failure or <code>null</code> if
+	 *         the run passed.
+	 */
+	public String getFailureMessage() {
+		return failureMessage;
+	}
+
+	/**
+	 * 
+	 * @return <code>true</code> if the host running the tests was under
+	 *         pressure when the run completed, so that the outcome might not
+	 *         be reliable.
+	 */
+	public boolean isHostSaturated() {
+		return hostSaturated;
+	}
+
+	@Override
+	public String toString() {
+		return outcome + " at " + timestamp + " (" + duration + " ms)"
+				+ (hostSaturated ? " [host saturated]" : "")
+				+ (failureMessage != null ? ": " + failureMessage : "");
+	}
+
+	public RunStatus(final Outcome outcome, final long timestamp,
+			final long duration, final String failureMessage) {
+		this(outcome, timestamp, duration, failureMessage, false);
+	}
+
+	public RunStatus(final Outcome outcome, final long timestamp,
+			final long duration, final String failureMessage,
+			final boolean hostSaturated) {
+		super();
+		this.outcome = outcome;
+		this.timestamp = timestamp;
+		this.duration = duration;
+		this.failureMessage = failureMessage;
+		this.hostSaturated = hostSaturated;
+	}
+
+}
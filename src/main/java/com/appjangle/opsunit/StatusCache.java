@@ -0,0 +1,68 @@
+package com.appjangle.opsunit;
+
+/**
+ * Holds the outcome of the last run for every job and test of a
+ * {@link JobManager}.
+ * <p>
+ * Reads do not acquire any locks and can be performed at high rates, for
+ * instance from health check endpoints.
+ * 
+ */
+public interface StatusCache {
+
+	/**
+	 * 
+	 * @param job
+	 * @return The status of the last completed run of the job or
+	 *         <code>null</code> if the job has not completed yet.
+	 */
+	public RunStatus getJobStatus(Job job);
+
+	/**
+	 * 
+	 * @param job
+	 * @param test
+	 * @return The status of the last completed run of the test or
+	 *         <code>null</code> if the test has not completed yet.
+	 */
+	public RunStatus getTestStatus(Job job, Class<?> test);
+
+	/**
+	 * 
+	 * @param job
+	 * @param probe
+	 * @return The status of the last run of the probe or <code>null</code> if
+	 *         the probe has not been run yet.
+	 */
+	public RunStatus getProbeStatus(Job job, Probe probe);
+
+	/**
+	 * 
+	 * @param job
+	 * @return <code>true</code> if the job has completed within the freshness
+	 *         window.
+	 */
+	public boolean isFresh(Job job);
+
+	/**
+	 * 
+	 * @param job
+	 * @param maxAge
+	 *            Maximum age in ms of the last run.
+	 * @return <code>true</code> if the job has completed within the last
+	 *         <code>maxAge</code> ms.
+	 */
+	public boolean isFresh(Job job, int maxAge);
+
+	/**
+	 * Sets the time in ms for which the status of a job is considered to be
+	 * fresh. If a negative value is supplied, the frequency of the respective
+	 * job is used (default).
+	 * 
+	 * @param freshnessWindow
+	 */
+	public void setFreshnessWindow(int freshnessWindow);
+
+	public int getFreshnessWindow();
+
+}
@@ -0,0 +1,12 @@
+package com.appjangle.opsunit;
+
+/**
+ * A job, which tolerates occasional failures, for instance for checks
+ * against a flaky network path.
+ * 
+ */
+public interface TolerantJob extends Job {
+
+	public HealthPolicy getHealthPolicy();
+
+}
@@ -3,6 +3,7 @@ package com.appjangle.opsunit.configuration;
 import java.util.Arrays;
 import java.util.List;
 
+import com.appjangle.opsunit.Probe;
 import com.appjangle.opsunit.Response;
 
 public class JobUtils {
@@ -15,4 +16,9 @@ public class JobUtils {
 	public static List<Class<?>> asList(final Class<?>... tests) {
 		return Arrays.asList(tests);
 	}
+
+	public static List<Probe> asList(final Probe... probes) {
+		return Arrays.asList(probes);
+	}
+
 }
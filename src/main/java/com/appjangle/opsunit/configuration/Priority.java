@@ -0,0 +1,20 @@
+package com.appjangle.opsunit.configuration;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.PrioritizedJob;
+
+public class Priority {
+
+    public static final int LOW = 1;
+    public static final int NORMAL = 5;
+    public static final int HIGH = 10;
+    public static final int CRITICAL = 20;
+
+    public static int of(final Job job) {
+        if (job instanceof PrioritizedJob) {
+            return Math.max(1, ((PrioritizedJob) job).getPriority());
+        }
+        return NORMAL;
+    }
+
+}
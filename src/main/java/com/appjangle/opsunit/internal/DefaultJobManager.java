@@ -1,7 +1,12 @@
 package com.appjangle.opsunit.internal;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import one.utils.concurrent.Concurrency;
 import one.utils.concurrent.OneExecutor;
@@ -9,12 +14,17 @@ import one.utils.concurrent.OneExecutor.WhenExecutorShutDown;
 import one.utils.concurrent.OneTimer;
 import one.utils.server.ShutdownCallback;
 
+import com.appjangle.opsunit.ConcurrencyController;
 import com.appjangle.opsunit.Job;
 import com.appjangle.opsunit.JobContext;
 import com.appjangle.opsunit.JobExecutor;
 import com.appjangle.opsunit.JobExecutor.JobCallback;
 import com.appjangle.opsunit.JobExecutorFactory;
 import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.JobState;
+import com.appjangle.opsunit.OverrunPolicy;
+import com.appjangle.opsunit.StatusCache;
+import com.appjangle.opsunit.configuration.Priority;
 
 public class DefaultJobManager implements JobManager {
 
@@ -22,13 +32,22 @@ public class DefaultJobManager implements JobManager {
     private final Concurrency concurrency;
     private final JobExecutorFactory executorFactory;
     private final JobContext listener;
+    private final DefaultStatusCache statusCache;
+    private final Map<Job, JobExecutor> executors;
+    private final Map<JobExecutor, Job> executorJobs;
+    private final Map<JobExecutor, List<StatusCallback>> waitingCallbacks;
     private final List<JobExecutor> activeExecutors;
-    private final List<JobExecutor> scheduledExecutors;
+    private final PriorityDispatcher scheduledExecutors;
+    private final List<Job> pausedJobs;
+    private final Map<Job, OverrunState> overrunStates;
     private final List<OneTimer> timers;
 
     private volatile boolean started = false;
     private volatile boolean stopping = false;
     private final OneExecutor workThread;
+    private final ConcurrencyController concurrencyController;
+    private final List<OneExecutor> workers;
+    private final List<OneExecutor> idleWorkers;
 
     @Override
     public void start() {
@@ -42,33 +61,49 @@ public class DefaultJobManager implements JobManager {
                     "Cannot start an job manager, which is shutting down.");
         }
 
+        concurrencyController.start(new ConcurrencyController.ChangeListener() {
+
+            @Override
+            public void onChange() {
+                if (stopping) {
+                    return;
+                }
+                statusCache.recordSaturation();
+                // run jobs, which are allowed under the new limits
+                dispatch();
+            }
+        });
+
         for (final Job job : jobs) {
 
             final JobExecutor executor = executorFactory.createExecutor(job,
                     listener);
 
+            synchronized (executors) {
+                executors.put(job, executor);
+                executorJobs.put(executor, job);
+            }
+
             final OneTimer jobTimer = concurrency.newTimer().scheduleRepeating(
                     job.getFrequency(), job.getFrequency(), new Runnable() {
 
                         @Override
                         public void run() {
-                            if (stopping) {
+                            if (pausedJobs.contains(job)) {
                                 return;
                             }
-                            if (activeExecutors.contains(executor)) {
+                            if (isDeferred(job, executor)) {
+                                // still waiting for its previous run
+                                dispatch();
                                 return;
                             }
-                            if (scheduledExecutors.contains(executor)) {
-                                return;
-                            }
-
-                            scheduledExecutors.add(executor);
-
-                            if (activeExecutors.size() == 0) {
-                                runScheduledExecutors();
+                            if (isQueued(executor)) {
+                                onOverrun(job);
+                                // limits might have been raised since
+                                dispatch();
                                 return;
                             }
-
+                            schedule(job, executor);
                         }
                     });
             this.timers.add(jobTimer);
@@ -77,36 +112,342 @@ public class DefaultJobManager implements JobManager {
         started = true;
     }
 
+    private void schedule(final Job job, final JobExecutor executor) {
+        if (stopping) {
+            return;
+        }
+
+        synchronized (scheduledExecutors) {
+            if (isQueued(executor)) {
+                return;
+            }
+
+            scheduledExecutors.add(executor, job, System.currentTimeMillis());
+        }
+
+        dispatch();
+    }
+
+    /**
+     * Executors are only moved between the scheduled and the active
+     * executors while holding the lock of the scheduled executors, so that
+     * an executor is never run twice at the same time.
+     * 
+     * @return <code>true</code> if the executor is running or waiting to be
+     *         run.
+     */
+    private boolean isQueued(final JobExecutor executor) {
+        synchronized (scheduledExecutors) {
+            return activeExecutors.contains(executor)
+                    || scheduledExecutors.contains(executor);
+        }
+    }
+
+    private void dispatch() {
+        if (activeExecutors.size() >= concurrencyController.getLimit()) {
+            return;
+        }
+
+        // run in work thread so that timers are not blocked by jobs
+        workThread.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                runScheduledExecutors();
+            }
+        });
+    }
+
+    /**
+     * 
+     * @return <code>true</code> if the job is due but held back by the
+     *         concurrency controller because of its priority.
+     */
+    private boolean isDeferred(final Job job, final JobExecutor executor) {
+        return Priority.of(job) < concurrencyController.getMinPriority()
+                && scheduledExecutors.contains(executor);
+    }
+
+    private void onOverrun(final Job job) {
+        final OverrunState state = overrunStates.get(job);
+
+        // runs kept to be run later are not reported
+        if (!state.onOverrun()) {
+            return;
+        }
+
+        DetailedListeners.of(listener.getListener()).onOverrun(job,
+                state.getMissedRuns(), state.getCoalescedRuns());
+    }
+
+    /**
+     * Starts as many scheduled executors as allowed by the concurrency
+     * controller. Only called from the work thread.
+     */
     private void runScheduledExecutors() {
-        if (scheduledExecutors.size() > 0) {
-            final JobExecutor newExecutor = scheduledExecutors.get(0);
-            scheduledExecutors.remove(0);
+        while (activeExecutors.size() < concurrencyController.getLimit()) {
+            final OneExecutor worker;
+            synchronized (idleWorkers) {
+                if (idleWorkers.size() == 0) {
+                    return;
+                }
+
+                final JobExecutor newExecutor;
+                synchronized (scheduledExecutors) {
+                    newExecutor = scheduledExecutors.next(
+                            System.currentTimeMillis(),
+                            concurrencyController.getMinPriority());
+                    if (newExecutor == null) {
+                        return;
+                    }
+                    activeExecutors.add(newExecutor);
+                }
+
+                worker = idleWorkers.remove(0);
 
-            activeExecutors.add(newExecutor);
+                worker.execute(new Runnable() {
 
-            newExecutor.run(new JobCallback() {
+                    @Override
+                    public void run() {
+                        runExecutor(newExecutor, worker);
+                    }
+                });
+            }
+        }
+    }
+
+    private void runExecutor(final JobExecutor newExecutor,
+            final OneExecutor worker) {
+        newExecutor.run(new JobCallback() {
+
+            @Override
+            public void onDone() {
+                final Job job;
+                synchronized (executors) {
+                    job = executorJobs.get(newExecutor);
+                }
 
-                @Override
-                public void onDone() {
+                synchronized (scheduledExecutors) {
                     activeExecutors.remove(newExecutor);
 
-                    // don't do anything when component is stopping
-                    if (stopping) {
-                        return;
+                    // catch up on runs which became due in the meantime
+                    if (!stopping && overrunStates.get(job).takePending()) {
+                        scheduledExecutors.add(newExecutor, job,
+                                System.currentTimeMillis());
                     }
+                }
+                synchronized (idleWorkers) {
+                    idleWorkers.add(worker);
+                }
 
-                    // start in new thread to avoid deep recursions
-                    workThread.execute(new Runnable() {
+                notifyWaitingCallbacks(newExecutor);
 
-                        @Override
-                        public void run() {
-                            runScheduledExecutors();
-                        }
-                    });
+                // don't do anything when component is stopping
+                if (stopping) {
+                    return;
+                }
+
+                // start in new thread to avoid deep recursions
+                workThread.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        runScheduledExecutors();
+                    }
+                });
+
+            }
+        });
+    }
+
+    @Override
+    public StatusCache getStatus() {
+        return statusCache;
+    }
+
+    @Override
+    public void runNow(final Job job, final int maxAge,
+            final StatusCallback callback) {
+        if (!started) {
+            throw new IllegalStateException(
+                    "Cannot run jobs on a job manager, which is not started.");
+        }
+
+        if (statusCache.isFresh(job, maxAge)) {
+            callback.onStatus(statusCache.getJobStatus(job));
+            return;
+        }
+
+        final JobExecutor executor;
+        synchronized (executors) {
+            executor = executors.get(job);
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException(
+                    "Job is not managed by this job manager: " + job.getName());
+        }
+
+        synchronized (waitingCallbacks) {
+            final List<StatusCallback> waiting = waitingCallbacks.get(executor);
+
+            // a run for this job has already been requested
+            if (waiting != null) {
+                waiting.add(callback);
+                return;
+            }
 
+            final List<StatusCallback> newWaiting = new ArrayList<StatusCallback>(
+                    1);
+            newWaiting.add(callback);
+            waitingCallbacks.put(executor, newWaiting);
+        }
+
+        schedule(job, executor);
+    }
+
+    @Override
+    public List<Job> getJobs() {
+        return Collections.unmodifiableList(jobs);
+    }
+
+    @Override
+    public JobState getState(final Job job) {
+        final JobExecutor executor;
+        synchronized (executors) {
+            executor = executors.get(job);
+        }
+
+        if (executor == null) {
+            throw new IllegalArgumentException(
+                    "Job is not managed by this job manager: " + job.getName());
+        }
+        synchronized (scheduledExecutors) {
+            if (activeExecutors.contains(executor)) {
+                return JobState.RUNNING;
+            }
+            if (scheduledExecutors.contains(executor)) {
+                return JobState.SCHEDULED;
+            }
+        }
+        return JobState.IDLE;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return scheduledExecutors.size();
+    }
+
+    @Override
+    public void pause(final Job job) {
+        if (!jobs.contains(job)) {
+            throw new IllegalArgumentException(
+                    "Job is not managed by this job manager: " + job.getName());
+        }
+        if (pausedJobs.contains(job)) {
+            return;
+        }
+        pausedJobs.add(job);
+        overrunStates.get(job).clearPending();
+    }
+
+    @Override
+    public void resume(final Job job) {
+        pausedJobs.remove(job);
+    }
+
+    @Override
+    public boolean isPaused(final Job job) {
+        return pausedJobs.contains(job);
+    }
+
+    @Override
+    public void setOverrunPolicy(final Job job, final OverrunPolicy policy) {
+        getOverrunState(job).setPolicy(policy);
+    }
+
+    @Override
+    public OverrunPolicy getOverrunPolicy(final Job job) {
+        return getOverrunState(job).getPolicy();
+    }
+
+    @Override
+    public long getMissedRuns(final Job job) {
+        return getOverrunState(job).getMissedRuns();
+    }
+
+    @Override
+    public long getCoalescedRuns(final Job job) {
+        return getOverrunState(job).getCoalescedRuns();
+    }
+
+    private OverrunState getOverrunState(final Job job) {
+        final OverrunState state = overrunStates.get(job);
+        if (state == null) {
+            throw new IllegalArgumentException(
+                    "Job is not managed by this job manager: " + job.getName());
+        }
+        return state;
+    }
+
+    private void notifyWaitingCallbacks(final JobExecutor executor) {
+        final List<StatusCallback> waiting;
+        synchronized (waitingCallbacks) {
+            waiting = waitingCallbacks.remove(executor);
+        }
+
+        if (waiting == null) {
+            return;
+        }
+
+        final Job job;
+        synchronized (executors) {
+            job = executorJobs.get(executor);
+        }
+
+        for (final StatusCallback callback : waiting) {
+            try {
+                callback.onStatus(statusCache.getJobStatus(job));
+            } catch (final Throwable t) {
+                reportUnexpectedFailure(job, t);
+            }
+        }
+    }
+
+    private void failWaitingCallbacks(final Throwable t) {
+        final Map<JobExecutor, List<StatusCallback>> waiting;
+        synchronized (waitingCallbacks) {
+            waiting = new HashMap<JobExecutor, List<StatusCallback>>(
+                    waitingCallbacks);
+            waitingCallbacks.clear();
+        }
+
+        for (final Entry<JobExecutor, List<StatusCallback>> entry : waiting
+                .entrySet()) {
+            final Job job;
+            synchronized (executors) {
+                job = executorJobs.get(entry.getKey());
+            }
+
+            for (final StatusCallback callback : entry.getValue()) {
+                try {
+                    callback.onFailure(t);
+                } catch (final Throwable e) {
+                    reportUnexpectedFailure(job, e);
                 }
-            });
+            }
+        }
+    }
 
+    /**
+     * Reports exceptions thrown by callbacks supplied by the user, so that
+     * they cannot interrupt scheduling or stopping the manager.
+     */
+    private void reportUnexpectedFailure(final Job job, final Throwable t) {
+        try {
+            listener.getListener().onUnexpectedFailure(job, t);
+        } catch (final Throwable e) {
+            // nothing else to report to
         }
     }
 
@@ -128,6 +469,9 @@ public class DefaultJobManager implements JobManager {
 
         timers.clear();
 
+        // jobs waiting to be run are not started anymore
+        scheduledExecutors.clear();
+
         while (activeExecutors.size() > 0) {
             // System.out.println(activeExecutors.size());
             try {
@@ -140,6 +484,11 @@ public class DefaultJobManager implements JobManager {
             Thread.yield();
         }
 
+        failWaitingCallbacks(new IllegalStateException(
+                "Job manager stopped before job could be run."));
+
+        concurrencyController.stop();
+
         started = false;
         stopping = false;
 
@@ -147,7 +496,7 @@ public class DefaultJobManager implements JobManager {
 
             @Override
             public void thenDo() {
-                callback.onShutdownComplete();
+                shutdownWorkers(new ArrayList<OneExecutor>(workers), callback);
             }
 
             @Override
@@ -158,22 +507,70 @@ public class DefaultJobManager implements JobManager {
 
     }
 
+    private void shutdownWorkers(final List<OneExecutor> remaining,
+            final ShutdownCallback callback) {
+        if (remaining.size() == 0) {
+            callback.onShutdownComplete();
+            return;
+        }
+
+        remaining.remove(0).shutdown(new WhenExecutorShutDown() {
+
+            @Override
+            public void thenDo() {
+                shutdownWorkers(remaining, callback);
+            }
+
+            @Override
+            public void onFailure(final Throwable t) {
+                callback.onFailure(t);
+            }
+        });
+    }
+
     public DefaultJobManager(final List<Job> jobs,
             final Concurrency concurrency,
             final JobExecutorFactory executorFactory,
             final JobContext jobContext) {
+        this(jobs, concurrency, executorFactory, jobContext,
+                new FixedConcurrencyController(1));
+    }
+
+    public DefaultJobManager(final List<Job> jobs,
+            final Concurrency concurrency,
+            final JobExecutorFactory executorFactory,
+            final JobContext jobContext,
+            final ConcurrencyController concurrencyController) {
         super();
         this.jobs = jobs;
         this.concurrency = concurrency;
-        this.listener = jobContext;
+        this.concurrencyController = concurrencyController;
+        this.statusCache = new DefaultStatusCache(concurrencyController);
+        this.listener = new StatusRecordingContext(jobContext, statusCache);
         this.executorFactory = executorFactory;
         this.timers = new LinkedList<OneTimer>();
+        this.executors = new HashMap<Job, JobExecutor>();
+        this.executorJobs = new HashMap<JobExecutor, Job>();
+        this.waitingCallbacks = new HashMap<JobExecutor, List<StatusCallback>>();
         this.workThread = concurrency.newExecutor().newSingleThreadExecutor(
                 this);
+        this.workers = new ArrayList<OneExecutor>(
+                concurrencyController.getMaxLimit());
+        for (int i = 0; i < concurrencyController.getMaxLimit(); i++) {
+            this.workers.add(concurrency.newExecutor()
+                    .newSingleThreadExecutor(this));
+        }
+        this.idleWorkers = new LinkedList<OneExecutor>(workers);
         this.activeExecutors = concurrency.newCollection().newThreadSafeList(
                 JobExecutor.class);
-        this.scheduledExecutors = concurrency.newCollection()
-                .newThreadSafeList(JobExecutor.class);
+        this.scheduledExecutors = new PriorityDispatcher();
+        this.pausedJobs = concurrency.newCollection().newThreadSafeList(
+                Job.class);
+        // only read after construction
+        this.overrunStates = new HashMap<Job, OverrunState>();
+        for (final Job job : jobs) {
+            this.overrunStates.put(job, new OverrunState(OverrunPolicy.skip()));
+        }
     }
 
 }
@@ -0,0 +1,253 @@
+package com.appjangle.opsunit.internal;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.appjangle.opsunit.ConcurrencyController;
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.RunStatus;
+import com.appjangle.opsunit.RunStatus.Outcome;
+import com.appjangle.opsunit.StatusCache;
+
+/**
+ * Status cache using copy on write maps, so that reads never block.
+ * 
+ */
+public class DefaultStatusCache implements StatusCache {
+
+    private volatile Map<Job, RunStatus> jobStatus;
+    private volatile Map<Job, Map<Object, RunStatus>> testStatus;
+    private volatile int freshnessWindow;
+    private final ConcurrencyController controller;
+
+    // state of runs in progress, only accessed while holding lock on this
+    private final Map<Job, Long> jobStarts;
+    private final Map<Job, Long> testStarts;
+    private final Map<Job, Class<?>> runningTests;
+    private final Map<Job, String> probeFailures;
+    private final Set<Job> saturatedRuns;
+
+    @Override
+    public RunStatus getJobStatus(final Job job) {
+        return jobStatus.get(job);
+    }
+
+    @Override
+    public RunStatus getTestStatus(final Job job, final Class<?> test) {
+        return getStatus(job, test);
+    }
+
+    @Override
+    public RunStatus getProbeStatus(final Job job, final Probe probe) {
+        return getStatus(job, probe);
+    }
+
+    private RunStatus getStatus(final Job job, final Object test) {
+        final Map<Object, RunStatus> tests = testStatus.get(job);
+        if (tests == null) {
+            return null;
+        }
+        return tests.get(test);
+    }
+
+    @Override
+    public boolean isFresh(final Job job) {
+        if (freshnessWindow < 0) {
+            return isFresh(job, job.getFrequency());
+        }
+        return isFresh(job, freshnessWindow);
+    }
+
+    @Override
+    public boolean isFresh(final Job job, final int maxAge) {
+        final RunStatus status = jobStatus.get(job);
+        if (status == null) {
+            return false;
+        }
+        return System.currentTimeMillis() - status.getTimestamp() <= maxAge;
+    }
+
+    @Override
+    public void setFreshnessWindow(final int freshnessWindow) {
+        this.freshnessWindow = freshnessWindow;
+    }
+
+    @Override
+    public int getFreshnessWindow() {
+        return freshnessWindow;
+    }
+
+    public synchronized void recordJobStarted(final Job job) {
+        jobStarts.put(job, System.currentTimeMillis());
+        runningTests.remove(job);
+        probeFailures.remove(job);
+        if (isSaturated()) {
+            saturatedRuns.add(job);
+        } else {
+            saturatedRuns.remove(job);
+        }
+    }
+
+    /**
+     * Marks all runs in progress as affected by pressure on the host if the
+     * controller currently reports the host as saturated. To be called
+     * whenever the state of the controller changes.
+     */
+    public synchronized void recordSaturation() {
+        if (isSaturated()) {
+            saturatedRuns.addAll(jobStarts.keySet());
+        }
+    }
+
+    public synchronized void recordTestStarted(final Job job,
+            final Class<?> test) {
+        // a new test is only started when the previous one has passed
+        completeRunningTest(job);
+        runningTests.put(job, test);
+        testStarts.put(job, System.currentTimeMillis());
+    }
+
+    public synchronized void recordTestFailed(final Job job,
+            final Class<?> test, final String message) {
+        if (runningTests.get(job) == test) {
+            runningTests.remove(job);
+        }
+        putTestStatus(job, test,
+                status(job, Outcome.FAILED, elapsed(testStarts, job), message));
+    }
+
+    public synchronized void recordJobCompleted(final Job job) {
+        completeRunningTest(job);
+        putJobStatus(job,
+                status(job, Outcome.PASSED, elapsed(jobStarts, job), null));
+    }
+
+    public synchronized void recordJobFailed(final Job job,
+            final Throwable lastException) {
+        runningTests.remove(job);
+        putJobStatus(job, status(job, Outcome.FAILED, elapsed(jobStarts, job),
+                messageOf(lastException)));
+    }
+
+    /**
+     * Records a failure, which is tolerated by the health policy of the job.
+     * 
+     * @param job
+     * @param t
+     *            The cause of the failure or <code>null</code> if the failure
+     *            was caused by a probe.
+     */
+    public synchronized void recordTransientFailure(final Job job,
+            final Throwable t) {
+        String message = t != null ? messageOf(t) : probeFailures.get(job);
+        if (message == null) {
+            message = "Failure tolerated by health policy.";
+        }
+        runningTests.remove(job);
+        putJobStatus(job,
+                status(job, Outcome.FAILED, elapsed(jobStarts, job), message));
+    }
+
+    public synchronized void recordProbeCompleted(final Job job,
+            final Probe probe, final int result, final long latency) {
+        if (result == Probe.PASSED) {
+            putTestStatus(job, probe, status(job, Outcome.PASSED, latency, null));
+            return;
+        }
+        final String message = "Probe [" + probe.getName()
+                + "] failed with result " + result + ".";
+        probeFailures.put(job, message);
+        putTestStatus(job, probe, status(job, Outcome.FAILED, latency, message));
+    }
+
+    private void completeRunningTest(final Job job) {
+        final Class<?> test = runningTests.remove(job);
+        if (test == null) {
+            return;
+        }
+        putTestStatus(job, test,
+                status(job, Outcome.PASSED, elapsed(testStarts, job), null));
+    }
+
+    private RunStatus status(final Job job, final Outcome outcome,
+            final long duration, final String failureMessage) {
+        // the host might have recovered while the job was running
+        final boolean saturated = saturatedRuns.contains(job) || isSaturated();
+        return new RunStatus(outcome, System.currentTimeMillis(), duration,
+                failureMessage, saturated);
+    }
+
+    private boolean isSaturated() {
+        return controller != null && controller.isSaturated();
+    }
+
+    private void putJobStatus(final Job job, final RunStatus status) {
+        final Map<Job, RunStatus> newJobStatus = new HashMap<Job, RunStatus>(
+                jobStatus);
+        newJobStatus.put(job, status);
+        jobStatus = newJobStatus;
+    }
+
+    private void putTestStatus(final Job job, final Object test,
+            final RunStatus status) {
+        final Map<Object, RunStatus> tests = testStatus.get(job);
+        final Map<Object, RunStatus> newTests;
+        if (tests == null) {
+            newTests = new HashMap<Object, RunStatus>();
+        } else {
+            newTests = new HashMap<Object, RunStatus>(tests);
+        }
+        newTests.put(test, status);
+
+        final Map<Job, Map<Object, RunStatus>> newTestStatus = new HashMap<Job, Map<Object, RunStatus>>(
+                testStatus);
+        newTestStatus.put(job, newTests);
+        testStatus = newTestStatus;
+    }
+
+    private static long elapsed(final Map<Job, Long> starts, final Job job) {
+        final Long start = starts.get(job);
+        if (start == null) {
+            return 0;
+        }
+        return System.currentTimeMillis() - start;
+    }
+
+    private static String messageOf(final Throwable t) {
+        if (t == null) {
+            return null;
+        }
+        if (t.getMessage() != null) {
+            return t.getMessage();
+        }
+        return t.toString();
+    }
+
+    public DefaultStatusCache() {
+        this(null);
+    }
+
+    /**
+     * 
+     * @param controller
+     *            Used to mark results, which have been measured while the
+     *            host was under pressure. Can be <code>null</code>.
+     */
+    public DefaultStatusCache(final ConcurrencyController controller) {
+        super();
+        this.controller = controller;
+        this.jobStatus = Collections.emptyMap();
+        this.testStatus = Collections.emptyMap();
+        this.freshnessWindow = -1;
+        this.jobStarts = new HashMap<Job, Long>();
+        this.testStarts = new HashMap<Job, Long>();
+        this.runningTests = new HashMap<Job, Class<?>>();
+        this.probeFailures = new HashMap<Job, String>();
+        this.saturatedRuns = new HashSet<Job>();
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.appjangle.opsunit.internal;
+
+import com.appjangle.opsunit.DetailedJobListener;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+/**
+ * Delivers detailed events only to listeners, which implement
+ * {@link DetailedJobListener}.
+ * 
+ */
+public class DetailedListeners {
+
+    // only the detailed events, which do nothing, are called on this listener
+    private static final DetailedJobListener NONE = new DefaultJobListener();
+
+    /**
+     * 
+     * @param listener
+     * @return The listener itself or a listener ignoring all detailed events
+     *         if the listener does not implement {@link DetailedJobListener}.
+     */
+    public static DetailedJobListener of(final JobListener listener) {
+        if (listener instanceof DetailedJobListener) {
+            return (DetailedJobListener) listener;
+        }
+        return NONE;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.appjangle.opsunit.internal;
+
+import com.appjangle.opsunit.ConcurrencyController;
+
+/**
+ * Runs a fixed number of jobs at the same time, regardless of the load of
+ * the host.
+ * 
+ */
+public class FixedConcurrencyController implements ConcurrencyController {
+
+    private final int limit;
+
+    @Override
+    public int getMaxLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int getMinPriority() {
+        return 0;
+    }
+
+    @Override
+    public boolean isSaturated() {
+        return false;
+    }
+
+    @Override
+    public void start(final ChangeListener listener) {
+
+    }
+
+    @Override
+    public void stop() {
+
+    }
+
+    public FixedConcurrencyController(final int limit) {
+        super();
+        if (limit < 1) {
+            throw new IllegalArgumentException(
+                    "At least one job must be allowed to run.");
+        }
+        this.limit = limit;
+    }
+
+}
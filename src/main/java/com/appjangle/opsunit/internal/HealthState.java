@@ -0,0 +1,153 @@
+package com.appjangle.opsunit.internal;
+
+import com.appjangle.opsunit.HealthPolicy;
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobListener;
+
+/**
+ * Keeps the outcomes of the last runs of a job as bits in a ring, to decide
+ * whether a failure should trigger the responses of the job.
+ * 
+ */
+public class HealthState {
+
+    private final HealthPolicy policy;
+
+    // bit i is set if run at position i failed or changed outcome
+    private long failures;
+    private long transitions;
+    private int position;
+    private int runs;
+    private int failureCount;
+    private int transitionCount;
+    private boolean lastFailed;
+
+    private boolean healthy;
+    private int consecutivePasses;
+    private boolean flapping;
+
+    /**
+     * Records a failed run and reports transient failures and flapping to
+     * the listener.
+     * 
+     * @param job
+     * @param listener
+     * @param t
+     *            The cause of the failure or <code>null</code> if the failure
+     *            was caused by a probe.
+     * @return <code>true</code> if the responses for the job should be run.
+     */
+    public boolean failed(final Job job, final JobListener listener,
+            final Throwable t) {
+        final boolean respond = onFailure();
+        if (startedFlapping()) {
+            DetailedListeners.of(listener).onJobFlapping(job,
+                    getTransitionCount());
+        }
+        if (!respond) {
+            DetailedListeners.of(listener).onTransientFailure(job, t);
+        }
+        return respond;
+    }
+
+    /**
+     * Records a passed run and reports flapping to the listener.
+     */
+    public void passed(final Job job, final JobListener listener) {
+        onPass();
+        if (startedFlapping()) {
+            DetailedListeners.of(listener).onJobFlapping(job,
+                    getTransitionCount());
+        }
+    }
+
+    /**
+     * Records a failed run.
+     * 
+     * @return <code>true</code> if the responses for the job should be run.
+     */
+    public synchronized boolean onFailure() {
+        record(true);
+        consecutivePasses = 0;
+
+        if (healthy && failureCount >= policy.getFailureThreshold()) {
+            healthy = false;
+        }
+
+        return !healthy;
+    }
+
+    public synchronized void onPass() {
+        record(false);
+        consecutivePasses++;
+
+        if (!healthy && consecutivePasses >= policy.getRecoveryPasses()) {
+            healthy = true;
+            // failures before the recovery do not count towards the next
+            // escalation
+            failures = 0;
+            failureCount = 0;
+        }
+    }
+
+    /**
+     * 
+     * @return <code>true</code> if the job has started flapping with the last
+     *         recorded run.
+     */
+    public synchronized boolean startedFlapping() {
+        final boolean nowFlapping = policy.getFlapThreshold() > 0
+                && transitionCount >= policy.getFlapThreshold();
+        final boolean started = nowFlapping && !flapping;
+        flapping = nowFlapping;
+        return started;
+    }
+
+    public synchronized boolean isFlapping() {
+        return flapping;
+    }
+
+    public synchronized boolean isHealthy() {
+        return healthy;
+    }
+
+    public synchronized int getTransitionCount() {
+        return transitionCount;
+    }
+
+    private void record(final boolean failed) {
+        final long bit = 1L << position;
+
+        if ((failures & bit) != 0) {
+            failureCount--;
+        }
+        if ((transitions & bit) != 0) {
+            transitionCount--;
+        }
+
+        if (failed) {
+            failures |= bit;
+            failureCount++;
+        } else {
+            failures &= ~bit;
+        }
+
+        if (runs > 0 && failed != lastFailed) {
+            transitions |= bit;
+            transitionCount++;
+        } else {
+            transitions &= ~bit;
+        }
+
+        lastFailed = failed;
+        runs++;
+        position = (position + 1) % policy.getWindow();
+    }
+
+    public HealthState(final HealthPolicy policy) {
+        super();
+        this.policy = policy;
+        this.healthy = true;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.appjangle.opsunit.internal;
+
+import com.appjangle.opsunit.OverrunPolicy;
+import com.appjangle.opsunit.OverrunPolicy.Type;
+
+/**
+ * Keeps track of runs of a job, which became due while the job was still
+ * running or waiting to be run.
+ * 
+ */
+public class OverrunState {
+
+    private OverrunPolicy policy;
+    private int pending;
+    private long missedRuns;
+    private long coalescedRuns;
+
+    public synchronized void setPolicy(final OverrunPolicy policy) {
+        this.policy = policy;
+        this.pending = Math.min(pending, policy.getMaxQueued());
+    }
+
+    public synchronized OverrunPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Called when the job becomes due while it is still running or
+     * scheduled.
+     * 
+     * @return <code>true</code> if the run has been dropped or coalesced,
+     *         <code>false</code> if it has been kept to be run later.
+     */
+    public synchronized boolean onOverrun() {
+        if (pending < policy.getMaxQueued()) {
+            pending++;
+            return false;
+        }
+
+        if (policy.getType() == Type.COALESCE) {
+            coalescedRuns++;
+            return true;
+        }
+
+        missedRuns++;
+        return true;
+    }
+
+    /**
+     * 
+     * @return <code>true</code> if a run has been kept to be run after the
+     *         current run.
+     */
+    public synchronized boolean takePending() {
+        if (pending == 0) {
+            return false;
+        }
+        pending--;
+        return true;
+    }
+
+    /**
+     * Drops all runs kept to be run later.
+     */
+    public synchronized void clearPending() {
+        pending = 0;
+    }
+
+    public synchronized long getMissedRuns() {
+        return missedRuns;
+    }
+
+    public synchronized long getCoalescedRuns() {
+        return coalescedRuns;
+    }
+
+    public OverrunState(final OverrunPolicy policy) {
+        super();
+        this.policy = policy;
+    }
+
+}
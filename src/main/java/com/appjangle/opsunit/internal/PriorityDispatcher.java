@@ -0,0 +1,130 @@
+package com.appjangle.opsunit.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobExecutor;
+import com.appjangle.opsunit.configuration.Priority;
+
+/**
+ * Queue of executors, which are due to be run.
+ * <p>
+ * The next executor is the one, which is most overdue relative to the
+ * frequency of its job, weighted by the priority of the job. Executors, which
+ * have waited for more than {@link #STARVATION_PERIODS} times the frequency
+ * of their job, are considered to be starving and are run before all others
+ * regardless of their priority.
+ * 
+ */
+public class PriorityDispatcher {
+
+    private static final class Entry {
+        private final JobExecutor executor;
+        private final Job job;
+        private final long due;
+
+        private Entry(final JobExecutor executor, final Job job, final long due) {
+            super();
+            this.executor = executor;
+            this.job = job;
+            this.due = due;
+        }
+    }
+
+    public static final int STARVATION_PERIODS = 2;
+
+    private final List<Entry> entries;
+
+    public synchronized void add(final JobExecutor executor, final Job job,
+            final long now) {
+        if (contains(executor)) {
+            return;
+        }
+        entries.add(new Entry(executor, job, now));
+    }
+
+    public synchronized boolean contains(final JobExecutor executor) {
+        for (final Entry entry : entries) {
+            if (entry.executor == executor) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes the executor, which should be run next.
+     * 
+     * @param now
+     * @return The next executor or <code>null</code> if none is due.
+     */
+    public synchronized JobExecutor next(final long now) {
+        return next(now, 0);
+    }
+
+    /**
+     * Removes the executor, which should be run next, ignoring executors for
+     * jobs with a priority lower than <code>minPriority</code> unless they
+     * are starving.
+     * 
+     * @param now
+     * @param minPriority
+     * @return The next executor or <code>null</code> if none is due.
+     */
+    public synchronized JobExecutor next(final long now, final int minPriority) {
+        if (entries.size() == 0) {
+            return null;
+        }
+
+        int best = -1;
+        boolean bestStarving = false;
+        double bestScore = 0;
+
+        for (int i = 0; i < entries.size(); i++) {
+            final Entry entry = entries.get(i);
+            final int priority = Priority.of(entry.job);
+            final int frequency = Math.max(1, entry.job.getFrequency());
+            final double overdue = (double) (now - entry.due + 1) / frequency;
+            final boolean starving = overdue > STARVATION_PERIODS;
+
+            if (priority < minPriority && !starving) {
+                // deferred
+                continue;
+            }
+
+            if (bestStarving && !starving) {
+                continue;
+            }
+
+            // priority is not considered for starving executors
+            final double score = starving ? overdue : overdue * priority;
+
+            if (best < 0 || (starving && !bestStarving) || score > bestScore) {
+                best = i;
+                bestStarving = starving;
+                bestScore = score;
+            }
+        }
+
+        if (best < 0) {
+            return null;
+        }
+
+        return entries.remove(best).executor;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public PriorityDispatcher() {
+        super();
+        this.entries = new ArrayList<Entry>();
+    }
+
+}
@@ -0,0 +1,245 @@
+package com.appjangle.opsunit.internal;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.appjangle.opsunit.HealthPolicy;
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobExecutor;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.ProbeJob;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.Response.Callback;
+
+/**
+ * Executor for jobs, which only consist of {@link Probe}s. Does not depend on
+ * JUnit or reflection.
+ * <p>
+ * The callback of a run is always notified, even if the listener throws an
+ * exception.
+ * 
+ */
+public class ProbeJobExecutor implements JobExecutor {
+
+    private final Job job;
+    private final JobContext listener;
+    private final boolean respond;
+    private final HealthState health;
+
+    /**
+     * Makes sure the callback of a run is only notified once, no matter on
+     * which path the run ends.
+     */
+    private static final class OnceCallback implements JobCallback {
+        private final JobCallback decorated;
+        private boolean done;
+
+        @Override
+        public void onDone() {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+            decorated.onDone();
+        }
+
+        private OnceCallback(final JobCallback decorated) {
+            this.decorated = decorated;
+            this.done = false;
+        }
+    }
+
+    @Override
+    public void run(final JobCallback callback) {
+        final JobCallback once = new OnceCallback(callback);
+        try {
+            listener.getListener().onStartJob(job);
+        } catch (final Throwable t) {
+            fail(new Exception("Could not start job: " + job.getName(), t),
+                    once);
+            return;
+        }
+        if (respond) {
+            runProbes(job.getResponses(), true, once);
+        } else {
+            runProbes(Collections.<Response> emptyList(), true, once);
+        }
+    }
+
+    /**
+     * 
+     * @param availableResponses
+     * @param initial
+     *            <code>false</code> when probes are run again after a
+     *            response.
+     * @param callback
+     */
+    private void runProbes(final List<Response> availableResponses,
+            final boolean initial, final JobCallback callback) {
+        Probe failed = null;
+        int failedResult = Probe.PASSED;
+        boolean tolerated = false;
+        try {
+            final List<Probe> probes = probesOf(job);
+            for (int i = 0; i < probes.size(); i++) {
+                final Probe probe = probes.get(i);
+                final int result = runProbe(job, probe, listener.getListener());
+
+                if (result != Probe.PASSED) {
+                    failed = probe;
+                    failedResult = result;
+                    break;
+                }
+            }
+
+            if (failed != null && initial) {
+                // the result is already reported through onProbeCompleted
+                tolerated = !health.failed(job, listener.getListener(), null);
+            }
+
+            if (failed == null) {
+                if (initial) {
+                    health.passed(job, listener.getListener());
+                }
+
+                listener.getListener().onJobSuccessfullyCompleted(job);
+            }
+        } catch (final Throwable t) {
+            fail(new Exception("Could not run probes: " + probesOf(job), t),
+                    callback);
+            return;
+        }
+
+        if (failed == null || tolerated) {
+            callback.onDone();
+            return;
+        }
+
+        attemptFix(availableResponses, failed, failedResult, callback);
+    }
+
+    /**
+     * 
+     * @param responses
+     * @param failed
+     *            The probe, which failed last.
+     * @param result
+     *            The result code of the failed probe.
+     * @param callback
+     */
+    private void attemptFix(final List<Response> responses,
+            final Probe failed, final int result, final JobCallback callback) {
+        // running out of possible ways to fix this execution
+        if (responses.size() == 0) {
+            fail(failureOf(failed, result), callback);
+            return;
+        }
+
+        final Response response = responses.get(0);
+
+        final List<Response> remainingResponses = new ArrayList<Response>(
+                responses);
+
+        remainingResponses.remove(0);
+
+        try {
+            response.run(listener, new Callback() {
+
+                @Override
+                public void onSuccess() {
+                    runProbes(remainingResponses, false, callback);
+                }
+
+                @Override
+                public void onFailure(final Throwable t) {
+                    try {
+                        listener.getListener().onResponseFailed(job, response,
+                                t);
+                    } catch (final Throwable e) {
+                        fail(e, callback);
+                        return;
+                    }
+                    runProbes(remainingResponses, false, callback);
+                }
+            });
+        } catch (final Throwable t) {
+            fail(new Exception("Could not apply responses: " + responses, t),
+                    callback);
+        }
+    }
+
+    /**
+     * Reports the job as failed. The callback is notified even if the
+     * listener throws an exception.
+     */
+    private void fail(final Throwable failure, final JobCallback callback) {
+        try {
+            listener.getListener().onJobFailed(job, failure);
+        } finally {
+            callback.onDone();
+        }
+    }
+
+    /**
+     * Runs a single probe and reports its result to the listener.
+     * 
+     * @return The result code of the probe.
+     */
+    public static int runProbe(final Job job, final Probe probe,
+            final JobListener listener) {
+        final long start = System.currentTimeMillis();
+        int result;
+        try {
+            result = probe.run();
+        } catch (final Throwable t) {
+            listener.onUnexpectedFailure(job, t);
+            result = Probe.FAILED;
+        }
+        DetailedListeners.of(listener).onProbeCompleted(job, probe, result,
+                System.currentTimeMillis() - start);
+        return result;
+    }
+
+    public static List<Probe> probesOf(final Job job) {
+        if (job instanceof ProbeJob) {
+            return ((ProbeJob) job).getProbes();
+        }
+        return Collections.emptyList();
+    }
+
+    /**
+     * Only created when a job failed because of a probe, to be reported as
+     * the cause of the failure.
+     */
+    public static Exception failureOf(final Probe probe, final int result) {
+        return new Exception("Probe [" + probe.getName()
+                + "] failed with result " + result + ".");
+    }
+
+    public ProbeJobExecutor(final Job job, final JobContext context) {
+        this(job, context, true);
+    }
+
+    /**
+     * 
+     * @param job
+     * @param context
+     * @param respond
+     *            If <code>false</code>, the responses of the job are not run
+     *            when a probe fails.
+     */
+    public ProbeJobExecutor(final Job job, final JobContext context,
+            final boolean respond) {
+        super();
+        this.job = job;
+        this.listener = context;
+        this.respond = respond;
+        this.health = new HealthState(HealthPolicy.of(job));
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.appjangle.opsunit.internal;
+
+import com.appjangle.opsunit.DetailedJobListener;
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.Response;
+
+/**
+ * Wraps the {@link JobContext} supplied by the user to record the outcome of
+ * all runs in a {@link DefaultStatusCache} before passing the events on.
+ * 
+ */
+public class StatusRecordingContext implements JobContext {
+
+    private final JobContext decorated;
+    private final DefaultStatusCache cache;
+    private final JobListener listener;
+
+    @Override
+    public JobListener getListener() {
+        return listener;
+    }
+
+    private final class RecordingListener implements DetailedJobListener {
+
+        @Override
+        public void onJobFailed(final Job j, final Throwable lastException) {
+            cache.recordJobFailed(j, lastException);
+            decorated.getListener().onJobFailed(j, lastException);
+        }
+
+        @Override
+        public void onUnexpectedFailure(final Job j, final Throwable t) {
+            decorated.getListener().onUnexpectedFailure(j, t);
+        }
+
+        @Override
+        public void onResponseFailed(final Job j, final Response r,
+                final Throwable t) {
+            decorated.getListener().onResponseFailed(j, r, t);
+        }
+
+        @Override
+        public void onStartJob(final Job j) {
+            cache.recordJobStarted(j);
+            decorated.getListener().onStartJob(j);
+        }
+
+        @Override
+        public void onJobSuccessfullyCompleted(final Job j) {
+            cache.recordJobCompleted(j);
+            decorated.getListener().onJobSuccessfullyCompleted(j);
+        }
+
+        @Override
+        public void onStartTest(final Job j, final Class<?> test) {
+            cache.recordTestStarted(j, test);
+            decorated.getListener().onStartTest(j, test);
+        }
+
+        @Override
+        public void onTestFailed(final Job j, final Class<?> test,
+                final String message, final Throwable t) {
+            cache.recordTestFailed(j, test, message);
+            decorated.getListener().onTestFailed(j, test, message, t);
+        }
+
+        @Override
+        public void onStartTestMethod(final Job j, final Class<?> test,
+                final String method) {
+            DetailedListeners.of(decorated.getListener()).onStartTestMethod(j,
+                    test, method);
+        }
+
+        @Override
+        public void onTestMethodFailed(final Job j, final Class<?> test,
+                final String method, final String message, final Throwable t) {
+            DetailedListeners.of(decorated.getListener()).onTestMethodFailed(
+                    j, test, method, message, t);
+        }
+
+        @Override
+        public void onTestMethodCompleted(final Job j, final Class<?> test,
+                final String method, final long duration) {
+            DetailedListeners.of(decorated.getListener())
+                    .onTestMethodCompleted(j, test, method, duration);
+        }
+
+        @Override
+        public void onOverrun(final Job j, final long missedRuns,
+                final long coalescedRuns) {
+            DetailedListeners.of(decorated.getListener()).onOverrun(j,
+                    missedRuns, coalescedRuns);
+        }
+
+        @Override
+        public void onProbeCompleted(final Job j, final Probe probe,
+                final int result, final long latency) {
+            cache.recordProbeCompleted(j, probe, result, latency);
+            DetailedListeners.of(decorated.getListener()).onProbeCompleted(j,
+                    probe, result, latency);
+        }
+
+        @Override
+        public void onTransientFailure(final Job j, final Throwable t) {
+            cache.recordTransientFailure(j, t);
+            DetailedListeners.of(decorated.getListener()).onTransientFailure(
+                    j, t);
+        }
+
+        @Override
+        public void onJobFlapping(final Job j, final int transitions) {
+            DetailedListeners.of(decorated.getListener()).onJobFlapping(j,
+                    transitions);
+        }
+
+    }
+
+    public StatusRecordingContext(final JobContext decorated,
+            final DefaultStatusCache cache) {
+        super();
+        this.decorated = decorated;
+        this.cache = cache;
+        this.listener = new RecordingListener();
+    }
+
+}
@@ -0,0 +1,219 @@
+package com.appjangle.opsunit.jre;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import com.appjangle.opsunit.ConcurrencyController;
+import com.appjangle.opsunit.configuration.Priority;
+
+/**
+ * Adjusts the number of jobs run at the same time to the load of the host.
+ * <p>
+ * CPU load, time spent in garbage collection and heap usage are sampled
+ * through the platform MXBeans. While any of them exceeds its threshold, the
+ * limit is halved for every sample and jobs with a priority lower than
+ * {@link Priority#NORMAL} are deferred, unless they are starving. Otherwise,
+ * the limit is increased by one for every sample.
+ * 
+ */
+public class AdaptiveConcurrencyController implements ConcurrencyController {
+
+	private final int maxLimit;
+	private final int sampleInterval;
+	private final double cpuThreshold;
+	private final double gcThreshold;
+	private final double heapThreshold;
+	private final int deferBelow;
+
+	private volatile int limit;
+	private volatile int minPriority;
+	private volatile boolean saturated;
+
+	private Timer timer;
+	private ChangeListener listener;
+	private long lastGcTime;
+	private long lastSampleTime;
+
+	@Override
+	public int getMaxLimit() {
+		return maxLimit;
+	}
+
+	@Override
+	public int getLimit() {
+		return limit;
+	}
+
+	@Override
+	public int getMinPriority() {
+		return minPriority;
+	}
+
+	@Override
+	public boolean isSaturated() {
+		return saturated;
+	}
+
+	@Override
+	public synchronized void start(final ChangeListener listener) {
+		this.listener = listener;
+		lastGcTime = totalGcTime();
+		lastSampleTime = System.currentTimeMillis();
+
+		timer = new Timer("opsunit-load-sampler", true);
+		timer.scheduleAtFixedRate(new TimerTask() {
+
+			@Override
+			public void run() {
+				sample();
+			}
+		}, sampleInterval, sampleInterval);
+	}
+
+	@Override
+	public synchronized void stop() {
+		if (timer != null) {
+			timer.cancel();
+			timer = null;
+		}
+		listener = null;
+	}
+
+	private void sample() {
+		final OperatingSystemMXBean os = ManagementFactory
+				.getOperatingSystemMXBean();
+		final double loadAverage = os.getSystemLoadAverage();
+		// load average is not available on all platforms
+		final double cpuLoad = loadAverage < 0 ? 0 : loadAverage
+				/ os.getAvailableProcessors();
+
+		final long now = System.currentTimeMillis();
+		final long gcTime = totalGcTime();
+		final double gcFraction;
+		synchronized (this) {
+			final long elapsed = now - lastSampleTime;
+			gcFraction = elapsed > 0 ? (double) (gcTime - lastGcTime)
+					/ elapsed : 0;
+			lastGcTime = gcTime;
+			lastSampleTime = now;
+		}
+
+		final MemoryUsage heap = ManagementFactory.getMemoryMXBean()
+				.getHeapMemoryUsage();
+		final long maxHeap = heap.getMax() > 0 ? heap.getMax() : heap
+				.getCommitted();
+		final double heapUsage = maxHeap > 0 ? (double) heap.getUsed()
+				/ maxHeap : 0;
+
+		onSample(cpuLoad, gcFraction, heapUsage);
+	}
+
+	/**
+	 * Adjusts the limit based on a sample of the host load.
+	 * 
+	 * @param cpuLoad
+	 *            System load average per available processor.
+	 * @param gcFraction
+	 *            Fraction of time spent in garbage collection since the last
+	 *            sample.
+	 * @param heapUsage
+	 *            Fraction of the maximum heap in use.
+	 */
+	public void onSample(final double cpuLoad, final double gcFraction,
+			final double heapUsage) {
+		final ChangeListener toNotify;
+		synchronized (this) {
+			final boolean pressure = cpuLoad > cpuThreshold
+					|| gcFraction > gcThreshold || heapUsage > heapThreshold;
+
+			final int oldLimit = limit;
+			final int oldMinPriority = minPriority;
+			final boolean oldSaturated = saturated;
+
+			if (pressure) {
+				limit = Math.max(1, limit / 2);
+				minPriority = deferBelow;
+			} else {
+				limit = Math.min(maxLimit, limit + 1);
+				minPriority = 0;
+			}
+			saturated = pressure;
+
+			if (limit != oldLimit || minPriority != oldMinPriority
+					|| saturated != oldSaturated) {
+				toNotify = listener;
+			} else {
+				toNotify = null;
+			}
+		}
+
+		// notify outside of lock since the manager starts jobs
+		if (toNotify != null) {
+			toNotify.onChange();
+		}
+	}
+
+	private static long totalGcTime() {
+		long total = 0;
+		for (final GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			if (gc.getCollectionTime() > 0) {
+				total += gc.getCollectionTime();
+			}
+		}
+		return total;
+	}
+
+	/**
+	 * 
+	 * @param maxLimit
+	 *            Maximum number of jobs to run at the same time.
+	 */
+	public AdaptiveConcurrencyController(final int maxLimit) {
+		this(maxLimit, 1000, 0.9, 0.1, 0.9, Priority.NORMAL);
+	}
+
+	/**
+	 * 
+	 * @param maxLimit
+	 *            Maximum number of jobs to run at the same time.
+	 * @param sampleInterval
+	 *            Time in ms between samples of the host load.
+	 * @param cpuThreshold
+	 *            System load average per processor above which the host is
+	 *            considered to be saturated.
+	 * @param gcThreshold
+	 *            Fraction of time spent in garbage collection above which the
+	 *            host is considered to be saturated.
+	 * @param heapThreshold
+	 *            Fraction of heap used above which the host is considered to
+	 *            be saturated.
+	 * @param deferBelow
+	 *            Jobs with a priority lower than this value are deferred while
+	 *            the host is saturated.
+	 */
+	public AdaptiveConcurrencyController(final int maxLimit,
+			final int sampleInterval, final double cpuThreshold,
+			final double gcThreshold, final double heapThreshold,
+			final int deferBelow) {
+		super();
+		if (maxLimit < 1) {
+			throw new IllegalArgumentException(
+					"At least one job must be allowed to run.");
+		}
+		this.maxLimit = maxLimit;
+		this.sampleInterval = sampleInterval;
+		this.cpuThreshold = cpuThreshold;
+		this.gcThreshold = gcThreshold;
+		this.heapThreshold = heapThreshold;
+		this.deferBelow = deferBelow;
+		this.limit = maxLimit;
+		this.minPriority = 0;
+		this.saturated = false;
+	}
+
+}
@@ -1,30 +1,123 @@
 package com.appjangle.opsunit.jre;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.Future;
 
 import one.utils.jre.OneUtilsJre;
 
+import com.appjangle.opsunit.ConcurrencyController;
 import com.appjangle.opsunit.Job;
 import com.appjangle.opsunit.JobContext;
 import com.appjangle.opsunit.JobExecutor;
 import com.appjangle.opsunit.JobExecutorFactory;
 import com.appjangle.opsunit.JobManager;
 import com.appjangle.opsunit.OpsUnit;
+import com.appjangle.opsunit.RunReport;
+import com.appjangle.opsunit.internal.ProbeJobExecutor;
 import com.appjangle.opsunit.jre.internal.JUnitJobExecutor;
+import com.appjangle.opsunit.jre.internal.NioStatusServer;
+import com.appjangle.opsunit.jre.internal.RunOnceExecution;
 
 public class OpsUnitJre {
 
 	public static JobManager createManager(final List<Job> jobs,
 			final JobContext context) {
+		return createManager(jobs, context, false);
+	}
+
+	/**
+	 * 
+	 * @param jobs
+	 * @param context
+	 * @param failFast
+	 *            If <code>true</code>, the remaining methods of a test class
+	 *            are skipped once one of its methods failed, so that
+	 *            responses are started earlier.
+	 * @return
+	 */
+	public static JobManager createManager(final List<Job> jobs,
+			final JobContext context, final boolean failFast) {
+		return createManager(jobs, context, failFast,
+				OpsUnit.fixedConcurrency(1));
+	}
+
+	/**
+	 * 
+	 * @param jobs
+	 * @param context
+	 * @param failFast
+	 * @param concurrencyController
+	 *            Determines how many jobs are run at the same time, for
+	 *            instance an {@link AdaptiveConcurrencyController}.
+	 * @return
+	 */
+	public static JobManager createManager(final List<Job> jobs,
+			final JobContext context, final boolean failFast,
+			final ConcurrencyController concurrencyController) {
 		return OpsUnit.createManager(jobs, OneUtilsJre.newJreConcurrency(),
 				new JobExecutorFactory() {
 
 					@Override
 					public JobExecutor createExecutor(final Job job,
 							final JobContext listener) {
-						return new JUnitJobExecutor(job, listener);
+						return OpsUnitJre.createExecutor(job, listener, true,
+								failFast);
 					}
-				}, context);
+				}, context, concurrencyController);
+	}
+
+	/**
+	 * Starts an HTTP server on the loopback interface, which reports the
+	 * status of the manager's jobs.
+	 * 
+	 * @param manager
+	 * @param port
+	 *            Port to listen on or 0 for any free port.
+	 * @return
+	 * @throws IOException
+	 */
+	public static StatusServer startStatusServer(final JobManager manager,
+			final int port) throws IOException {
+		return NioStatusServer.start(manager, port);
+	}
+
+	/**
+	 * Runs all tests of the supplied jobs once, running the jobs in parallel.
+	 * Test classes stop at their first failed method.
+	 * 
+	 * @param jobs
+	 * @param context
+	 * @param respond
+	 *            Whether the responses of jobs should be run if a test fails.
+	 * @param timeout
+	 *            Time in ms after which jobs, which are not completed, are
+	 *            reported as failed.
+	 * @return A future providing the report for all jobs.
+	 */
+	public static Future<RunReport> runOnce(final List<Job> jobs,
+			final JobContext context, final boolean respond, final int timeout) {
+		return new RunOnceExecution(jobs, context, respond, timeout,
+				jobs.size()).start();
+	}
+
+	/**
+	 * Creates an executor for the job, which does not rely on JUnit if the
+	 * job only consists of {@link com.appjangle.opsunit.Probe}s.
+	 * 
+	 * @param job
+	 * @param context
+	 * @param respond
+	 * @param failFast
+	 * @return
+	 */
+	public static JobExecutor createExecutor(final Job job,
+			final JobContext context, final boolean respond,
+			final boolean failFast) {
+		if (job.getTests().isEmpty()) {
+			return new ProbeJobExecutor(job, context, respond);
+		}
+		return new JUnitJobExecutor(job, context, respond, failFast);
 	}
 
 }
@@ -0,0 +1,32 @@
+package com.appjangle.opsunit.jre;
+
+/**
+ * An embedded HTTP server providing the status of a
+ * {@link com.appjangle.opsunit.JobManager} as JSON and allowing to control its
+ * jobs.
+ * <p>
+ * Supported requests:
+ * <ul>
+ * <li><code>GET /status</code>: queue depth, state and last results of all
+ * jobs. If the status could not be determined, the last known status is
+ * reported with an additional <code>refreshError</code> field.</li>
+ * <li><code>POST /jobs/{name}/run</code>: run the job right away</li>
+ * <li><code>POST /jobs/{name}/pause</code>: stop scheduling the job</li>
+ * <li><code>POST /jobs/{name}/resume</code>: continue scheduling the job</li>
+ * </ul>
+ * 
+ */
+public interface StatusServer {
+
+	/**
+	 * 
+	 * @return The local port the server is listening on.
+	 */
+	public int getPort();
+
+	/**
+	 * Stops the server and closes all open connections.
+	 */
+	public void stop();
+
+}
@@ -1,17 +1,31 @@
 package com.appjangle.opsunit.jre.internal;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 
-import org.junit.runner.JUnitCore;
+import org.junit.runner.Description;
+import org.junit.runner.Request;
 import org.junit.runner.Result;
+import org.junit.runner.Runner;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.junit.runner.notification.RunNotifier;
+import org.junit.runner.notification.StoppedByUserException;
 
+import com.appjangle.opsunit.HealthPolicy;
 import com.appjangle.opsunit.Job;
 import com.appjangle.opsunit.JobContext;
 import com.appjangle.opsunit.JobExecutor;
+import com.appjangle.opsunit.Probe;
 import com.appjangle.opsunit.Response;
 import com.appjangle.opsunit.Response.Callback;
+import com.appjangle.opsunit.internal.DetailedListeners;
+import com.appjangle.opsunit.internal.HealthState;
+import com.appjangle.opsunit.internal.ProbeJobExecutor;
 
 public class JUnitJobExecutor implements JobExecutor {
 
@@ -19,16 +33,19 @@ public class JUnitJobExecutor implements JobExecutor {
         private final AtomicBoolean crashed;
         private final JobCallback callback;
         private final List<Response> availableResponses;
+        private final boolean initial;
         private final AtomicBoolean completed;
         private final Class<?> test;
 
         private MonitorTimeoutThread(final AtomicBoolean crashed,
                 final JobCallback callback,
                 final List<Response> availableResponses,
-                final AtomicBoolean completed, final Class<?> test) {
+                final boolean initial, final AtomicBoolean completed,
+                final Class<?> test) {
             this.crashed = crashed;
             this.callback = callback;
             this.availableResponses = availableResponses;
+            this.initial = initial;
             this.completed = completed;
             this.test = test;
         }
@@ -53,32 +70,107 @@ public class JUnitJobExecutor implements JobExecutor {
                 final Exception e = new Exception("Test [" + test
                         + "] not completed in timeout limit (" + timeoutInMin
                         + " min).");
-                listener.getListener().onTestFailed(
-                        job,
-                        test,
+
+                onFailure(availableResponses, initial, test,
                         "Test has not been completed within timeout limit ("
-                                + timeoutInMin + " min)", e);
+                                + timeoutInMin + " min)", e, callback);
+            }
+        }
+    }
+
+    /**
+     * Reports the progress of the individual test methods as they are run.
+     */
+    private final class StreamingListener extends RunListener {
+        private final Class<?> test;
+        private final RunNotifier notifier;
+        private final Map<Description, Long> starts;
 
-                attemptFix(availableResponses, e, callback);
+        @Override
+        public void testStarted(final Description description)
+                throws Exception {
+            starts.put(description, System.currentTimeMillis());
+            DetailedListeners.of(listener.getListener()).onStartTestMethod(
+                    job, test, methodName(description));
+        }
+
+        @Override
+        public void testFailure(final Failure failure) throws Exception {
+            DetailedListeners.of(listener.getListener()).onTestMethodFailed(
+                    job, test, methodName(failure.getDescription()),
+                    failure.getMessage(), failure.getException());
+
+            if (failFast) {
+                notifier.pleaseStop();
             }
         }
+
+        @Override
+        public void testFinished(final Description description)
+                throws Exception {
+            final Long start = starts.remove(description);
+            final long duration = start != null ? System.currentTimeMillis()
+                    - start : 0;
+            DetailedListeners.of(listener.getListener())
+                    .onTestMethodCompleted(job, test,
+                            methodName(description), duration);
+        }
+
+        private StreamingListener(final Class<?> test,
+                final RunNotifier notifier) {
+            this.test = test;
+            this.notifier = notifier;
+            this.starts = new HashMap<Description, Long>();
+        }
     }
 
     private final Job job;
     private final JobContext listener;
+    private final boolean respond;
+    private final boolean failFast;
+    private final HealthState health;
 
     private final static boolean ENABLE_LOG = false;
 
     @Override
     public void run(final JobCallback callback) {
         listener.getListener().onStartJob(job);
-        runTests(job.getResponses(), callback);
+        if (respond) {
+            runTests(job.getResponses(), true, callback);
+        } else {
+            runTests(Collections.<Response> emptyList(), true, callback);
+        }
     }
 
+    /**
+     * 
+     * @param availableResponses
+     * @param initial
+     *            <code>false</code> when tests are run again after a
+     *            response.
+     * @param callback
+     */
     private final void runTests(final List<Response> availableResponses,
-            final JobCallback callback) {
+            final boolean initial, final JobCallback callback) {
 
         try {
+            for (final Probe probe : ProbeJobExecutor.probesOf(job)) {
+                final int result = ProbeJobExecutor.runProbe(job, probe,
+                        listener.getListener());
+
+                if (result != Probe.PASSED) {
+                    // the result is already reported through onProbeCompleted
+                    if (initial
+                            && !health
+                                    .failed(job, listener.getListener(), null)) {
+                        callback.onDone();
+                        return;
+                    }
+                    attemptFix(availableResponses, probe, result, callback);
+                    return;
+                }
+            }
+
             for (final Class<?> test : job.getTests()) {
                 if (ENABLE_LOG) {
                     System.out.println(this + ": Run test: " + test);
@@ -89,9 +181,9 @@ public class JUnitJobExecutor implements JobExecutor {
                 final AtomicBoolean crashed = new AtomicBoolean(false);
 
                 new MonitorTimeoutThread(crashed, callback, availableResponses,
-                        completed, test).start();
+                        initial, completed, test).start();
 
-                final Result result = JUnitCore.runClasses(test);
+                final Result result = runTest(test);
 
                 completed.set(true);
 
@@ -111,12 +203,9 @@ public class JUnitJobExecutor implements JobExecutor {
                 }
 
                 if (result.getFailureCount() > 0) {
-                    listener.getListener().onTestFailed(job, test,
-                            result.getFailures().get(0).getMessage(),
-                            result.getFailures().get(0).getException());
-
-                    attemptFix(availableResponses, result.getFailures().get(0)
-                            .getException(), callback);
+                    onFailure(availableResponses, initial, test, result
+                            .getFailures().get(0).getMessage(), result
+                            .getFailures().get(0).getException(), callback);
                     return;
                 }
             }
@@ -127,12 +216,73 @@ public class JUnitJobExecutor implements JobExecutor {
             return;
         }
 
+        if (initial) {
+            health.passed(job, listener.getListener());
+        }
+
         listener.getListener().onJobSuccessfullyCompleted(job);
 
         callback.onDone();
 
     }
 
+    private final Result runTest(final Class<?> test) {
+        final Result result = new Result();
+        final RunNotifier notifier = new RunNotifier();
+        notifier.addFirstListener(result.createListener());
+        notifier.addListener(new StreamingListener(test, notifier));
+
+        final Runner runner = Request.aClass(test).getRunner();
+        notifier.fireTestRunStarted(runner.getDescription());
+        try {
+            runner.run(notifier);
+        } catch (final StoppedByUserException e) {
+            // remaining methods are skipped after the first failure
+        }
+        notifier.fireTestRunFinished(result);
+
+        return result;
+    }
+
+    private static String methodName(final Description description) {
+        if (description.getMethodName() != null) {
+            return description.getMethodName();
+        }
+        // failures in class level fixtures
+        return description.getDisplayName();
+    }
+
+    /**
+     * Reports the failed test and runs the responses unless the failure is
+     * tolerated by the health policy of the job. Only the first attempt of a
+     * run is counted towards the health of the job.
+     */
+    private final void onFailure(final List<Response> availableResponses,
+            final boolean initial, final Class<?> test, final String message,
+            final Throwable failure, final JobCallback callback) {
+        if (initial && !health.failed(job, listener.getListener(), failure)) {
+            callback.onDone();
+            return;
+        }
+        listener.getListener().onTestFailed(job, test, message, failure);
+        attemptFix(availableResponses, failure, callback);
+    }
+
+    /**
+     * Only creates the failure for the probe if it is reported as the cause
+     * of the failed job.
+     */
+    private final void attemptFix(final List<Response> responses,
+            final Probe failed, final int result, final JobCallback callback) {
+        if (responses.size() == 0) {
+            attemptFix(responses, ProbeJobExecutor.failureOf(failed, result),
+                    callback);
+            return;
+        }
+        // the failure is only reported once all responses have been tried
+        attemptFix(responses, (Throwable) null, callback);
+    }
+
     private final void attemptFix(final List<Response> responses,
             final Throwable lastFailure, final JobCallback callback) {
         try {
@@ -174,7 +324,7 @@ public class JUnitJobExecutor implements JobExecutor {
 
                         @Override
                         public void run() {
-                            runTests(remainingResponses, callback);
+                            runTests(remainingResponses, false, callback);
                         }
 
                     }.start();
@@ -188,7 +338,7 @@ public class JUnitJobExecutor implements JobExecutor {
 
                         @Override
                         public void run() {
-                            runTests(remainingResponses, callback);
+                            runTests(remainingResponses, false, callback);
                         }
 
                     }.start();
@@ -207,9 +357,28 @@ public class JUnitJobExecutor implements JobExecutor {
     }
 
     public JUnitJobExecutor(final Job job, final JobContext context) {
+        this(job, context, true, false);
+    }
+
+    /**
+     * 
+     * @param job
+     * @param context
+     * @param respond
+     *            If <code>false</code>, the responses of the job are not run
+     *            when a test fails.
+     * @param failFast
+     *            If <code>true</code>, the remaining methods of a test class
+     *            are skipped after the first failed method.
+     */
+    public JUnitJobExecutor(final Job job, final JobContext context,
+            final boolean respond, final boolean failFast) {
         super();
         this.job = job;
         this.listener = context;
+        this.respond = respond;
+        this.failFast = failFast;
+        this.health = new HealthState(HealthPolicy.of(job));
 
         // verifying instantiability of test cases
         for (final Class<?> test : job.getTests()) {
@@ -0,0 +1,349 @@
+package com.appjangle.opsunit.jre.internal;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.JobManager.StatusCallback;
+import com.appjangle.opsunit.RunStatus;
+import com.appjangle.opsunit.jre.StatusServer;
+
+/**
+ * A minimal HTTP/1.0 server, which handles all connections on a single
+ * selector thread.
+ * <p>
+ * The status document is serialized by a separate refresher thread every
+ * {@link #SNAPSHOT_INTERVAL} and requests only read the last published bytes,
+ * so that serving status requests never waits for locks of the job manager.
+ * 
+ */
+public class NioStatusServer implements StatusServer {
+
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    private static final int SNAPSHOT_INTERVAL = 250;
+    private static final int MAX_REQUEST_SIZE = 8192;
+
+    private final JobManager manager;
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final Thread selectorThread;
+    private final Timer refresher;
+
+    private volatile boolean stopping = false;
+
+    private volatile byte[] snapshot;
+
+    // only accessed from refresher thread
+    private String lastStatus;
+
+    @Override
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    @Override
+    public void stop() {
+        stopping = true;
+        refresher.cancel();
+        selector.wakeup();
+        try {
+            selectorThread.join();
+        } catch (final InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void serve() {
+        try {
+            while (!stopping) {
+                selector.select();
+
+                final Iterator<SelectionKey> keys = selector.selectedKeys()
+                        .iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+
+                    try {
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else if (key.isReadable()) {
+                            read(key);
+                        } else if (key.isWritable()) {
+                            write(key);
+                        }
+                    } catch (final IOException e) {
+                        close(key);
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for (final SelectionKey key : selector.keys()) {
+                close(key);
+            }
+            try {
+                selector.close();
+            } catch (final IOException e) {
+                // ignore on shutdown
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        final SocketChannel channel = serverChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        channel.configureBlocking(false);
+        channel.register(selector, SelectionKey.OP_READ,
+                ByteBuffer.allocate(MAX_REQUEST_SIZE));
+    }
+
+    private void read(final SelectionKey key) throws IOException {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        final ByteBuffer request = (ByteBuffer) key.attachment();
+
+        if (channel.read(request) < 0) {
+            close(key);
+            return;
+        }
+
+        final String received = new String(request.array(), 0,
+                request.position(), UTF8);
+        final int headerEnd = received.indexOf("\r\n\r\n");
+
+        if (headerEnd < 0) {
+            if (!request.hasRemaining()) {
+                respond(key, response(413, "{\"error\":\"Request too large\"}"));
+            }
+            return;
+        }
+
+        final int lineEnd = received.indexOf("\r\n");
+        try {
+            respond(key, handle(received.substring(0, lineEnd)));
+        } catch (final RuntimeException e) {
+            final StringBuilder json = new StringBuilder("{\"error\":");
+            StatusJson.appendString(json, e.getMessage());
+            json.append('}');
+            respond(key, response(500, json.toString()));
+        }
+    }
+
+    private void write(final SelectionKey key) throws IOException {
+        final SocketChannel channel = (SocketChannel) key.channel();
+        final ByteBuffer response = (ByteBuffer) key.attachment();
+
+        channel.write(response);
+
+        if (!response.hasRemaining()) {
+            close(key);
+        }
+    }
+
+    private void respond(final SelectionKey key, final byte[] response) {
+        key.attach(ByteBuffer.wrap(response));
+        key.interestOps(SelectionKey.OP_WRITE);
+    }
+
+    private void close(final SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (final IOException e) {
+            // nothing to do
+        }
+    }
+
+    private byte[] handle(final String requestLine) {
+        final String[] parts = requestLine.split(" ");
+        if (parts.length < 2) {
+            return response(400, "{\"error\":\"Malformed request\"}");
+        }
+
+        final String method = parts[0];
+        final String path = parts[1];
+
+        if (path.equals("/") || path.equals("/status")) {
+            if (!method.equals("GET")) {
+                return response(405, "{\"error\":\"Method not allowed\"}");
+            }
+            return snapshot;
+        }
+
+        final String[] segments = path.split("/");
+        // path is /jobs/{name}/{action}
+        if (segments.length != 4 || !segments[1].equals("jobs")) {
+            return response(404, "{\"error\":\"Not found\"}");
+        }
+
+        if (!method.equals("POST")) {
+            return response(405, "{\"error\":\"Method not allowed\"}");
+        }
+
+        final Job job = findJob(decode(segments[2]));
+        if (job == null) {
+            return response(404, "{\"error\":\"Unknown job\"}");
+        }
+
+        final String action = segments[3];
+        if (action.equals("run")) {
+            manager.runNow(job, 0, new StatusCallback() {
+
+                @Override
+                public void onStatus(final RunStatus status) {
+                }
+
+                @Override
+                public void onFailure(final Throwable t) {
+                }
+            });
+        } else if (action.equals("pause")) {
+            manager.pause(job);
+        } else if (action.equals("resume")) {
+            manager.resume(job);
+        } else {
+            return response(404, "{\"error\":\"Unknown action\"}");
+        }
+
+        // make the change visible without waiting for the next refresh
+        refresher.schedule(new TimerTask() {
+
+            @Override
+            public void run() {
+                refresh();
+            }
+        }, 0);
+
+        return response(202, "{\"accepted\":true}");
+    }
+
+    private void refresh() {
+        try {
+            final String status = StatusJson.serialize(manager);
+            lastStatus = status;
+            snapshot = response(200, status);
+        } catch (final Throwable t) {
+            // keep serving the last status, marked as stale
+            final StringBuilder json = new StringBuilder("{\"refreshError\":");
+            StatusJson.appendString(json,
+                    t.getMessage() != null ? t.getMessage() : t.toString());
+            if (lastStatus == null) {
+                json.append('}');
+                snapshot = response(500, json.toString());
+                return;
+            }
+            json.append(',').append(lastStatus.substring(1));
+            snapshot = response(200, json.toString());
+        }
+    }
+
+    private Job findJob(final String name) {
+        for (final Job job : manager.getJobs()) {
+            if (job.getName().equals(name)) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    private static String decode(final String segment) {
+        try {
+            return URLDecoder.decode(segment, "UTF-8");
+        } catch (final UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static byte[] response(final int status, final String json) {
+        final byte[] body = json.getBytes(UTF8);
+        final String header = "HTTP/1.0 " + status + " " + reason(status)
+                + "\r\nContent-Type: application/json; charset=utf-8"
+                + "\r\nContent-Length: " + body.length
+                + "\r\nCache-Control: no-cache" + "\r\nConnection: close"
+                + "\r\n\r\n";
+        final byte[] head = header.getBytes(UTF8);
+        final byte[] response = new byte[head.length + body.length];
+        System.arraycopy(head, 0, response, 0, head.length);
+        System.arraycopy(body, 0, response, head.length, body.length);
+        return response;
+    }
+
+    private static String reason(final int status) {
+        switch (status) {
+        case 200:
+            return "OK";
+        case 202:
+            return "Accepted";
+        case 400:
+            return "Bad Request";
+        case 404:
+            return "Not Found";
+        case 405:
+            return "Method Not Allowed";
+        case 413:
+            return "Request Entity Too Large";
+        case 500:
+            return "Internal Server Error";
+        default:
+            return "Error";
+        }
+    }
+
+    public static NioStatusServer start(final JobManager manager,
+            final int port) throws IOException {
+        final NioStatusServer server = new NioStatusServer(manager, port);
+        server.refresh();
+        server.refresher.scheduleAtFixedRate(new TimerTask() {
+
+            @Override
+            public void run() {
+                server.refresh();
+            }
+        }, SNAPSHOT_INTERVAL, SNAPSHOT_INTERVAL);
+        server.selectorThread.start();
+        return server;
+    }
+
+    private NioStatusServer(final JobManager manager, final int port)
+            throws IOException {
+        super();
+        this.manager = manager;
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        this.serverChannel.socket().bind(
+                new InetSocketAddress(InetAddress.getByName("127.0.0.1"), port));
+        this.serverChannel.configureBlocking(false);
+        this.serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        this.selectorThread = new Thread("opsunit-status-server") {
+
+            @Override
+            public void run() {
+                serve();
+            }
+
+        };
+        this.selectorThread.setDaemon(true);
+        this.refresher = new Timer("opsunit-status-refresher", true);
+    }
+
+}
@@ -0,0 +1,155 @@
+package com.appjangle.opsunit.jre.internal;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobExecutor;
+import com.appjangle.opsunit.JobExecutor.JobCallback;
+import com.appjangle.opsunit.RunReport;
+import com.appjangle.opsunit.RunStatus;
+import com.appjangle.opsunit.RunStatus.Outcome;
+import com.appjangle.opsunit.internal.DefaultStatusCache;
+import com.appjangle.opsunit.internal.StatusRecordingContext;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+
+/**
+ * Runs a number of jobs once and in parallel, for instance as a gate in a
+ * deployment.
+ * 
+ */
+public class RunOnceExecution implements Callable<RunReport> {
+
+    private final List<Job> jobs;
+    private final JobContext context;
+    private final boolean respond;
+    private final int timeout;
+    private final int parallelism;
+
+    @Override
+    public RunReport call() throws Exception {
+        final DefaultStatusCache cache = new DefaultStatusCache();
+        final JobContext recordingContext = new StatusRecordingContext(
+                context, cache);
+
+        final ExecutorService pool = Executors.newFixedThreadPool(
+                parallelism, new ThreadFactory() {
+                    private final AtomicInteger count = new AtomicInteger(0);
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread t = new Thread(r, "opsunit-run-once-"
+                                + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+
+        final long start = System.currentTimeMillis();
+        final Map<Job, CountDownLatch> latches = new LinkedHashMap<Job, CountDownLatch>();
+
+        try {
+            for (final Job job : jobs) {
+                final CountDownLatch latch = new CountDownLatch(1);
+                latches.put(job, latch);
+
+                pool.execute(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        try {
+                            final JobExecutor executor = OpsUnitJre
+                                    .createExecutor(job, recordingContext,
+                                            respond, true);
+                            executor.run(new JobCallback() {
+
+                                @Override
+                                public void onDone() {
+                                    latch.countDown();
+                                }
+                            });
+                        } catch (final Throwable t) {
+                            // listeners might throw on failures, the
+                            // outcome has been recorded before
+                            if (cache.getJobStatus(job) == null) {
+                                cache.recordJobFailed(job, t);
+                            }
+                            latch.countDown();
+                        }
+                    }
+                });
+            }
+
+            final long deadline = start + timeout;
+            final Map<Job, RunStatus> statuses = new LinkedHashMap<Job, RunStatus>();
+            for (final Map.Entry<Job, CountDownLatch> e : latches.entrySet()) {
+                final long remaining = deadline - System.currentTimeMillis();
+                final boolean completed = e.getValue().await(
+                        Math.max(remaining, 0), TimeUnit.MILLISECONDS);
+                final RunStatus status = cache.getJobStatus(e.getKey());
+
+                if (!completed || status == null) {
+                    statuses.put(e.getKey(), new RunStatus(Outcome.FAILED,
+                            System.currentTimeMillis(),
+                            System.currentTimeMillis() - start,
+                            "Job not completed within timeout limit ("
+                                    + timeout + " ms)."));
+                    continue;
+                }
+                statuses.put(e.getKey(), status);
+            }
+
+            return new RunReport(statuses, System.currentTimeMillis() - start);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts running the jobs in a background thread.
+     * 
+     * @return A future providing the report once all jobs are completed or
+     *         the timeout has passed.
+     */
+    public Future<RunReport> start() {
+        final FutureTask<RunReport> task = new FutureTask<RunReport>(this);
+        final Thread thread = new Thread(task, "opsunit-run-once");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    /**
+     * 
+     * @param jobs
+     * @param context
+     * @param respond
+     *            Whether responses should be run for failed tests.
+     * @param timeout
+     *            Time in ms after which jobs, which have not completed, are
+     *            reported as failed.
+     * @param parallelism
+     *            Maximum number of jobs to run at the same time.
+     */
+    public RunOnceExecution(final List<Job> jobs, final JobContext context,
+            final boolean respond, final int timeout, final int parallelism) {
+        super();
+        this.jobs = jobs;
+        this.context = context;
+        this.respond = respond;
+        this.timeout = timeout;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.appjangle.opsunit.jre.internal;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.RunStatus;
+import com.appjangle.opsunit.StatusCache;
+import com.appjangle.opsunit.internal.ProbeJobExecutor;
+
+/**
+ * Serializes the state of a {@link JobManager} into JSON.
+ * 
+ */
+public class StatusJson {
+
+    public static String serialize(final JobManager manager) {
+        final StatusCache cache = manager.getStatus();
+        final StringBuilder json = new StringBuilder(256);
+
+        json.append("{\"queueDepth\":").append(manager.getQueueDepth());
+        json.append(",\"jobs\":[");
+
+        boolean firstJob = true;
+        for (final Job job : manager.getJobs()) {
+            if (!firstJob) {
+                json.append(',');
+            }
+            firstJob = false;
+
+            json.append("{\"name\":");
+            appendString(json, job.getName());
+            json.append(",\"state\":\"").append(manager.getState(job))
+                    .append('"');
+            json.append(",\"paused\":").append(manager.isPaused(job));
+            json.append(",\"frequency\":").append(job.getFrequency());
+            json.append(",\"overrunPolicy\":\"")
+                    .append(manager.getOverrunPolicy(job)).append('"');
+            json.append(",\"missedRuns\":").append(manager.getMissedRuns(job));
+            json.append(",\"coalescedRuns\":").append(
+                    manager.getCoalescedRuns(job));
+            json.append(",\"fresh\":").append(cache.isFresh(job));
+            json.append(",\"lastRun\":");
+            appendStatus(json, cache.getJobStatus(job));
+            json.append(",\"tests\":[");
+
+            boolean firstTest = true;
+            for (final Class<?> test : job.getTests()) {
+                if (!firstTest) {
+                    json.append(',');
+                }
+                firstTest = false;
+
+                json.append("{\"test\":");
+                appendString(json, test.getName());
+                json.append(",\"lastRun\":");
+                appendStatus(json, cache.getTestStatus(job, test));
+                json.append('}');
+            }
+            json.append("],\"probes\":[");
+
+            boolean firstProbe = true;
+            for (final Probe probe : ProbeJobExecutor.probesOf(job)) {
+                if (!firstProbe) {
+                    json.append(',');
+                }
+                firstProbe = false;
+
+                json.append("{\"probe\":");
+                appendString(json, probe.getName());
+                json.append(",\"lastRun\":");
+                appendStatus(json, cache.getProbeStatus(job, probe));
+                json.append('}');
+            }
+            json.append("]}");
+        }
+        json.append("]}");
+
+        return json.toString();
+    }
+
+    private static void appendStatus(final StringBuilder json,
+            final RunStatus status) {
+        if (status == null) {
+            json.append("null");
+            return;
+        }
+        json.append("{\"outcome\":\"").append(status.getOutcome())
+                .append('"');
+        json.append(",\"timestamp\":").append(status.getTimestamp());
+        json.append(",\"duration\":").append(status.getDuration());
+        json.append(",\"hostSaturated\":").append(status.isHostSaturated());
+        json.append(",\"failureMessage\":");
+        appendString(json, status.getFailureMessage());
+        json.append('}');
+    }
+
+    public static void appendString(final StringBuilder json,
+            final String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            switch (c) {
+            case '"':
+                json.append("\\\"");
+                break;
+            case '\\':
+                json.append("\\\\");
+                break;
+            case '\n':
+                json.append("\\n");
+                break;
+            case '\r':
+                json.append("\\r");
+                break;
+            case '\t':
+                json.append("\\t");
+                break;
+            default:
+                if (c < 0x20) {
+                    final String hex = Integer.toHexString(c);
+                    json.append("\\u");
+                    for (int j = hex.length(); j < 4; j++) {
+                        json.append('0');
+                    }
+                    json.append(hex);
+                } else {
+                    json.append(c);
+                }
+            }
+        }
+        json.append('"');
+    }
+
+}
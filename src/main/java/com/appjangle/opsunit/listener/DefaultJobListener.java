@@ -1,10 +1,11 @@
 package com.appjangle.opsunit.listener;
 
+import com.appjangle.opsunit.DetailedJobListener;
 import com.appjangle.opsunit.Job;
-import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.Probe;
 import com.appjangle.opsunit.Response;
 
-public class DefaultJobListener implements JobListener {
+public class DefaultJobListener implements DetailedJobListener {
 
 	@Override
 	public void onJobFailed(final Job j, final Throwable lastException) {
@@ -45,4 +46,44 @@ public class DefaultJobListener implements JobListener {
 				+ test, t);
 	}
 
+	@Override
+	public void onStartTestMethod(final Job j, final Class<?> test,
+			final String method) {
+
+	}
+
+	@Override
+	public void onTestMethodFailed(final Job j, final Class<?> test,
+			final String method, final String message, final Throwable t) {
+
+	}
+
+	@Override
+	public void onTestMethodCompleted(final Job j, final Class<?> test,
+			final String method, final long duration) {
+
+	}
+
+	@Override
+	public void onOverrun(final Job j, final long missedRuns,
+			final long coalescedRuns) {
+
+	}
+
+	@Override
+	public void onProbeCompleted(final Job j, final Probe probe,
+			final int result, final long latency) {
+
+	}
+
+	@Override
+	public void onTransientFailure(final Job j, final Throwable t) {
+
+	}
+
+	@Override
+	public void onJobFlapping(final Job j, final int transitions) {
+
+	}
+
 }
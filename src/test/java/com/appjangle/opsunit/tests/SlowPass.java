@@ -0,0 +1,21 @@
+package com.appjangle.opsunit.tests;
+
+import org.junit.Test;
+
+/**
+ * Test class shared by tests, which need jobs taking a while to complete.
+ * 
+ */
+public class SlowPass {
+
+	/**
+	 * Time in ms the test takes to complete.
+	 */
+	public static final int DURATION = 500;
+
+	@Test
+	public void test_slow() throws InterruptedException {
+		Thread.sleep(DURATION);
+	}
+
+}
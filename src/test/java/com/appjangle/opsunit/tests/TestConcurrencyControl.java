@@ -0,0 +1,474 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import one.utils.server.ShutdownCallback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.ConcurrencyController;
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.JobManager.StatusCallback;
+import com.appjangle.opsunit.OpsUnit;
+import com.appjangle.opsunit.PrioritizedJob;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.ProbeJob;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.RunStatus;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.configuration.JobUtils;
+import com.appjangle.opsunit.configuration.Priority;
+import com.appjangle.opsunit.jre.AdaptiveConcurrencyController;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+import com.appjangle.opsunit.jre.templates.AlwaysPass;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestConcurrencyControl {
+
+	private static Job job(final String name, final int priority,
+			final int frequency, final Class<?> test) {
+		return new PrioritizedJob() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				return JobUtils.asList(test);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public int getFrequency() {
+				return frequency;
+			}
+
+			@Override
+			public int getPriority() {
+				return priority;
+			}
+		};
+	}
+
+	private static void stop(final JobManager manager) {
+		manager.stop(new ShutdownCallback() {
+
+			@Override
+			public void onShutdownComplete() {
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				throw new RuntimeException(t);
+			}
+		});
+	}
+
+	@Test
+	public void test_limit_is_adjusted_to_load() {
+		final AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(
+				8, Frequency.minutes(10), 0.9, 0.1, 0.9, Priority.NORMAL);
+
+		final AtomicInteger changes = new AtomicInteger(0);
+		controller.start(new ConcurrencyController.ChangeListener() {
+
+			@Override
+			public void onChange() {
+				changes.incrementAndGet();
+			}
+		});
+
+		Assert.assertEquals(8, controller.getLimit());
+
+		controller.onSample(2.0, 0, 0);
+		Assert.assertEquals(4, controller.getLimit());
+		Assert.assertTrue(controller.isSaturated());
+		Assert.assertEquals(Priority.NORMAL, controller.getMinPriority());
+		Assert.assertEquals(1, changes.get());
+
+		controller.onSample(0, 0.5, 0);
+		controller.onSample(0, 0, 0.95);
+		controller.onSample(0, 0, 0.95);
+		Assert.assertEquals(1, controller.getLimit());
+		// limit cannot be lowered any further
+		Assert.assertEquals(3, changes.get());
+
+		controller.onSample(0.1, 0, 0.5);
+		Assert.assertEquals(2, controller.getLimit());
+		Assert.assertFalse(controller.isSaturated());
+		Assert.assertEquals(0, controller.getMinPriority());
+
+		for (int i = 0; i < 10; i++) {
+			controller.onSample(0.1, 0, 0.5);
+		}
+		Assert.assertEquals(8, controller.getLimit());
+
+		controller.stop();
+	}
+
+	@Test
+	public void test_saturated_host() throws InterruptedException {
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger maxRunning = new AtomicInteger(0);
+
+		final LinkedList<Job> jobs = new LinkedList<Job>();
+		final Job critical1 = job("critical 1", Priority.CRITICAL, 100,
+				SlowPass.class);
+		final Job critical2 = job("critical 2", Priority.CRITICAL, 100,
+				SlowPass.class);
+		// does not start starving while the test runs
+		final Job low = job("low", Priority.LOW, Frequency.seconds(1),
+				SlowPass.class);
+		jobs.add(critical1);
+		jobs.add(critical2);
+		jobs.add(low);
+
+		final ConcurrencyController saturated = new ConcurrencyController() {
+
+			@Override
+			public int getMaxLimit() {
+				return 3;
+			}
+
+			@Override
+			public int getLimit() {
+				return 3;
+			}
+
+			@Override
+			public int getMinPriority() {
+				return Priority.HIGH;
+			}
+
+			@Override
+			public boolean isSaturated() {
+				return true;
+			}
+
+			@Override
+			public void start(final ChangeListener listener) {
+			}
+
+			@Override
+			public void stop() {
+			}
+		};
+
+		final JobManager manager = OpsUnitJre.createManager(jobs,
+				new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener() {
+
+							@Override
+							public void onStartJob(final Job j) {
+								final int now = running.incrementAndGet();
+								synchronized (maxRunning) {
+									maxRunning.set(Math.max(maxRunning.get(),
+											now));
+								}
+							}
+
+							@Override
+							public void onJobSuccessfullyCompleted(
+									final Job j) {
+								running.decrementAndGet();
+							}
+
+						};
+					}
+				}, false, saturated);
+
+		manager.start();
+
+		Thread.sleep(1500);
+
+		stop(manager);
+
+		Assert.assertEquals(2, maxRunning.get());
+
+		final RunStatus status = manager.getStatus().getJobStatus(critical1);
+		Assert.assertNotNull(status);
+		Assert.assertTrue(status.isHostSaturated());
+
+		// low priority job is deferred while the host is saturated
+		Assert.assertNull(manager.getStatus().getJobStatus(low));
+		Assert.assertEquals(0, manager.getMissedRuns(low));
+	}
+
+	@Test
+	public void test_deferred_jobs_run_when_pressure_clears()
+			throws InterruptedException {
+		final AdaptiveConcurrencyController controller = new AdaptiveConcurrencyController(
+				2, Frequency.minutes(10), 0.9, 0.1, 0.9, Priority.NORMAL);
+
+		final LinkedList<Job> jobs = new LinkedList<Job>();
+		final Job low = job("low", Priority.LOW, Frequency.seconds(1),
+				AlwaysPass.class);
+		final Job normal = job("normal", Priority.NORMAL, Frequency.minutes(60),
+				AlwaysPass.class);
+		jobs.add(low);
+		jobs.add(normal);
+
+		final JobManager manager = OpsUnitJre.createManager(jobs,
+				new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener();
+					}
+				}, false, controller);
+
+		manager.start();
+
+		controller.onSample(2.0, 0, 0);
+
+		// jobs with normal priority are still run under pressure
+		final CountDownLatch answered = new CountDownLatch(1);
+		manager.runNow(normal, 0, new StatusCallback() {
+
+			@Override
+			public void onStatus(final RunStatus status) {
+				answered.countDown();
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				Assert.fail(t.getMessage());
+			}
+		});
+		Assert.assertTrue(answered.await(10, TimeUnit.SECONDS));
+
+		// low job is due after 1 s and ticks again after 2 s
+		Thread.sleep(2300);
+		Assert.assertNull(manager.getStatus().getJobStatus(low));
+
+		controller.onSample(0, 0, 0);
+
+		final long cleared = System.currentTimeMillis();
+		while (manager.getStatus().getJobStatus(low) == null) {
+			Assert.assertTrue(System.currentTimeMillis() - cleared < 10000);
+			Thread.sleep(10);
+		}
+
+		stop(manager);
+
+		// run right away rather than being counted as missed with the next
+		// tick
+		Assert.assertEquals(0, manager.getMissedRuns(low));
+	}
+
+	@Test
+	public void test_job_is_never_run_twice_at_the_same_time()
+			throws InterruptedException {
+		final AtomicInteger running = new AtomicInteger(0);
+		final AtomicInteger maxRunning = new AtomicInteger(0);
+		final AtomicInteger runs = new AtomicInteger(0);
+
+		final Probe probe = new Probe() {
+
+			@Override
+			public String getName() {
+				return "slow probe";
+			}
+
+			@Override
+			public int run() {
+				final int now = running.incrementAndGet();
+				synchronized (maxRunning) {
+					maxRunning.set(Math.max(maxRunning.get(), now));
+				}
+				try {
+					Thread.sleep(5);
+				} catch (final InterruptedException e) {
+					return FAILED;
+				} finally {
+					running.decrementAndGet();
+					runs.incrementAndGet();
+				}
+				return PASSED;
+			}
+		};
+
+		final Job job = new ProbeJob() {
+
+			@Override
+			public List<Probe> getProbes() {
+				return JobUtils.asList(probe);
+			}
+
+			@Override
+			public List<Class<?>> getTests() {
+				return new ArrayList<Class<?>>(0);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "probe job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return 10;
+			}
+		};
+
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener();
+					}
+				}, false, OpsUnit.fixedConcurrency(4));
+
+		manager.start();
+
+		final StatusCallback ignore = new StatusCallback() {
+
+			@Override
+			public void onStatus(final RunStatus status) {
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+			}
+		};
+
+		final long end = System.currentTimeMillis() + 1000;
+		final List<Thread> requesters = new ArrayList<Thread>();
+		for (int i = 0; i < 4; i++) {
+			final Thread requester = new Thread() {
+
+				@Override
+				public void run() {
+					while (System.currentTimeMillis() < end) {
+						manager.runNow(job, 0, ignore);
+					}
+				}
+			};
+			requester.start();
+			requesters.add(requester);
+		}
+		for (final Thread requester : requesters) {
+			requester.join();
+		}
+
+		stop(manager);
+
+		Assert.assertTrue(runs.get() > 0);
+		Assert.assertEquals(1, maxRunning.get());
+	}
+
+	@Test
+	public void test_saturation_during_run_is_recorded()
+			throws InterruptedException {
+		final AtomicInteger saturated = new AtomicInteger(0);
+		final List<ConcurrencyController.ChangeListener> listeners = new ArrayList<ConcurrencyController.ChangeListener>();
+
+		final ConcurrencyController controller = new ConcurrencyController() {
+
+			@Override
+			public int getMaxLimit() {
+				return 1;
+			}
+
+			@Override
+			public int getLimit() {
+				return 1;
+			}
+
+			@Override
+			public int getMinPriority() {
+				return 0;
+			}
+
+			@Override
+			public boolean isSaturated() {
+				return saturated.get() > 0;
+			}
+
+			@Override
+			public void start(final ChangeListener listener) {
+				listeners.add(listener);
+			}
+
+			@Override
+			public void stop() {
+			}
+		};
+
+		final Job job = job("slow", Priority.NORMAL, Frequency.minutes(60),
+				SlowPass.class);
+
+		final CountDownLatch started = new CountDownLatch(1);
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener() {
+
+							@Override
+							public void onStartJob(final Job j) {
+								started.countDown();
+							}
+
+						};
+					}
+				}, false, controller);
+
+		manager.start();
+
+		final CountDownLatch answered = new CountDownLatch(1);
+		manager.runNow(job, 0, new StatusCallback() {
+
+			@Override
+			public void onStatus(final RunStatus status) {
+				answered.countDown();
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				Assert.fail(t.getMessage());
+			}
+		});
+
+		Assert.assertTrue(started.await(10, TimeUnit.SECONDS));
+
+		// host is saturated only for a short time while the job runs
+		saturated.set(1);
+		listeners.get(0).onChange();
+		saturated.set(0);
+		listeners.get(0).onChange();
+
+		Assert.assertTrue(answered.await(10, TimeUnit.SECONDS));
+
+		stop(manager);
+
+		Assert.assertTrue(manager.getStatus().getJobStatus(job)
+				.isHostSaturated());
+	}
+}
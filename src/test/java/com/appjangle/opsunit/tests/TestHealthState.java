@@ -0,0 +1,353 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.HealthPolicy;
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobExecutor.JobCallback;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.ProbeJob;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.TolerantJob;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.configuration.JobUtils;
+import com.appjangle.opsunit.internal.DefaultStatusCache;
+import com.appjangle.opsunit.internal.HealthState;
+import com.appjangle.opsunit.internal.ProbeJobExecutor;
+import com.appjangle.opsunit.jre.internal.JUnitJobExecutor;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestHealthState {
+
+	public static class FailingTest {
+
+		@Test
+		public void test_fail() {
+			Assert.fail("failed");
+		}
+
+	}
+
+	private final Exception failure = new Exception("failed");
+
+	@Test
+	public void test_immediate_policy_responds_to_every_failure() {
+		final HealthState state = new HealthState(HealthPolicy.immediate());
+
+		Assert.assertTrue(state.onFailure());
+		state.onPass();
+		Assert.assertTrue(state.isHealthy());
+		Assert.assertTrue(state.onFailure());
+	}
+
+	@Test
+	public void test_threshold_and_recovery() {
+		// respond when 2 of the last 4 runs failed, recover after 2 passes
+		final HealthState state = new HealthState(new HealthPolicy(2, 4, 2, 0));
+
+		Assert.assertFalse(state.onFailure());
+		state.onPass();
+		Assert.assertTrue(state.onFailure());
+		Assert.assertFalse(state.isHealthy());
+
+		// one pass is not enough to recover
+		state.onPass();
+		Assert.assertFalse(state.isHealthy());
+		Assert.assertTrue(state.onFailure());
+
+		state.onPass();
+		state.onPass();
+		Assert.assertTrue(state.isHealthy());
+
+		// failures before the recovery are not counted again
+		Assert.assertFalse(state.onFailure());
+	}
+
+	@Test
+	public void test_old_failures_leave_the_window() {
+		final HealthState state = new HealthState(new HealthPolicy(2, 3, 1, 0));
+
+		Assert.assertFalse(state.onFailure());
+		state.onPass();
+		state.onPass();
+		state.onPass();
+		Assert.assertFalse(state.onFailure());
+	}
+
+	@Test
+	public void test_flapping_is_reported_once() {
+		final HealthState state = new HealthState(new HealthPolicy(4, 8, 1, 3));
+		final List<Integer> flaps = new ArrayList<Integer>();
+		final List<Throwable> tolerated = new ArrayList<Throwable>();
+
+		final JobListener listener = new DefaultJobListener() {
+
+			@Override
+			public void onJobFlapping(final Job j, final int transitions) {
+				flaps.add(transitions);
+			}
+
+			@Override
+			public void onTransientFailure(final Job j, final Throwable t) {
+				tolerated.add(t);
+			}
+
+		};
+
+		for (int i = 0; i < 4; i++) {
+			state.passed(null, listener);
+			state.failed(null, listener, failure);
+		}
+
+		Assert.assertEquals(1, flaps.size());
+		Assert.assertEquals(3, flaps.get(0).intValue());
+		Assert.assertTrue(state.isFlapping());
+		Assert.assertEquals(3, tolerated.size());
+	}
+
+	private interface TolerantProbeJob extends ProbeJob, TolerantJob {
+
+	}
+
+	@Test
+	public void test_tolerated_probe_failure() {
+		final List<Throwable> tolerated = new ArrayList<Throwable>();
+		final List<Throwable> failed = new ArrayList<Throwable>();
+
+		final Probe probe = new Probe() {
+
+			@Override
+			public String getName() {
+				return "unreachable";
+			}
+
+			@Override
+			public int run() {
+				return UNREACHABLE;
+			}
+		};
+
+		final TolerantProbeJob job = new TolerantProbeJob() {
+
+			@Override
+			public List<Probe> getProbes() {
+				return JobUtils.asList(probe);
+			}
+
+			@Override
+			public List<Class<?>> getTests() {
+				return new ArrayList<Class<?>>(0);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "tolerant job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+
+			@Override
+			public HealthPolicy getHealthPolicy() {
+				return new HealthPolicy(2, 4, 1, 0);
+			}
+		};
+
+		final ProbeJobExecutor executor = new ProbeJobExecutor(job,
+				new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener() {
+
+							@Override
+							public void onTransientFailure(final Job j,
+									final Throwable t) {
+								tolerated.add(t);
+							}
+
+							@Override
+							public void onJobFailed(final Job j,
+									final Throwable lastException) {
+								failed.add(lastException);
+							}
+
+						};
+					}
+				});
+
+		final JobCallback callback = new JobCallback() {
+
+			@Override
+			public void onDone() {
+			}
+		};
+
+		executor.run(callback);
+
+		// the probe result is reported, no exception is created
+		Assert.assertEquals(1, tolerated.size());
+		Assert.assertNull(tolerated.get(0));
+		Assert.assertEquals(0, failed.size());
+
+		executor.run(callback);
+
+		Assert.assertEquals(1, failed.size());
+		Assert.assertTrue(failed.get(0).getMessage().contains("unreachable"));
+	}
+
+	@Test
+	public void test_tolerated_test_failure_is_not_reported()
+			throws InterruptedException {
+		final List<Throwable> tolerated = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+		final List<Throwable> failed = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+
+		final TolerantJob job = new TolerantJob() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				return JobUtils.asList(FailingTest.class);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "tolerant test job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+
+			@Override
+			public HealthPolicy getHealthPolicy() {
+				return new HealthPolicy(2, 4, 1, 0);
+			}
+		};
+
+		final JobListener listener = new DefaultJobListener() {
+
+			@Override
+			public void onTransientFailure(final Job j, final Throwable t) {
+				tolerated.add(t);
+			}
+
+			@Override
+			public void onTestFailed(final Job j, final Class<?> test,
+					final String message, final Throwable t) {
+				failed.add(t);
+			}
+
+			@Override
+			public void onJobFailed(final Job j, final Throwable lastException) {
+			}
+
+		};
+
+		final JUnitJobExecutor executor = new JUnitJobExecutor(job,
+				new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return listener;
+					}
+				}, true, false);
+
+		for (int i = 0; i < 2; i++) {
+			final CountDownLatch done = new CountDownLatch(1);
+			executor.run(new JobCallback() {
+
+				@Override
+				public void onDone() {
+					done.countDown();
+				}
+			});
+			Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+
+			if (i == 0) {
+				Assert.assertEquals(1, tolerated.size());
+				Assert.assertNotNull(tolerated.get(0));
+				Assert.assertEquals(0, failed.size());
+			}
+		}
+
+		// once the threshold is reached the failed test is reported
+		Assert.assertEquals(1, tolerated.size());
+		Assert.assertEquals(1, failed.size());
+	}
+
+	@Test
+	public void test_tolerated_failure_is_recorded_with_message() {
+		final DefaultStatusCache cache = new DefaultStatusCache();
+
+		final Probe probe = new Probe() {
+
+			@Override
+			public String getName() {
+				return "unreachable";
+			}
+
+			@Override
+			public int run() {
+				return UNREACHABLE;
+			}
+		};
+
+		final Job job = new Job() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				return new ArrayList<Class<?>>(0);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "tolerant job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+		};
+
+		cache.recordJobStarted(job);
+		cache.recordTransientFailure(job, null);
+		Assert.assertNotNull(cache.getJobStatus(job).getFailureMessage());
+
+		// the failed probe is reported as the cause
+		cache.recordJobStarted(job);
+		cache.recordProbeCompleted(job, probe, Probe.UNREACHABLE, 1);
+		cache.recordTransientFailure(job, null);
+		Assert.assertTrue(cache.getJobStatus(job).getFailureMessage()
+				.contains("unreachable"));
+	}
+}
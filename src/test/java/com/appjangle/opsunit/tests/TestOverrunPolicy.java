@@ -0,0 +1,135 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import one.utils.server.ShutdownCallback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.OverrunPolicy;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.configuration.JobUtils;
+import com.appjangle.opsunit.internal.OverrunState;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestOverrunPolicy {
+
+	private static Job slowJob() {
+		return new Job() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				return JobUtils.asList(SlowPass.class);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "slow job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return 50;
+			}
+		};
+	}
+
+	private static JobManager runFor(final Job job,
+			final OverrunPolicy policy, final AtomicInteger overruns)
+			throws InterruptedException {
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener() {
+
+							@Override
+							public void onOverrun(final Job j,
+									final long missedRuns,
+									final long coalescedRuns) {
+								overruns.incrementAndGet();
+							}
+
+						};
+					}
+				});
+
+		manager.setOverrunPolicy(job, policy);
+		manager.start();
+
+		Thread.sleep(1000);
+
+		manager.stop(new ShutdownCallback() {
+
+			@Override
+			public void onShutdownComplete() {
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				throw new RuntimeException(t);
+			}
+		});
+		return manager;
+	}
+
+	@Test
+	public void test_skipped_runs_are_counted() throws InterruptedException {
+		final Job job = slowJob();
+		final AtomicInteger overruns = new AtomicInteger(0);
+
+		final JobManager manager = runFor(job, OverrunPolicy.skip(), overruns);
+
+		Assert.assertTrue(manager.getMissedRuns(job) > 0);
+		Assert.assertEquals(0, manager.getCoalescedRuns(job));
+		Assert.assertTrue(overruns.get() > 0);
+	}
+
+	@Test
+	public void test_overruns_are_coalesced() throws InterruptedException {
+		final Job job = slowJob();
+		final AtomicInteger overruns = new AtomicInteger(0);
+
+		final JobManager manager = runFor(job, OverrunPolicy.coalesce(),
+				overruns);
+
+		Assert.assertTrue(manager.getCoalescedRuns(job) > 0);
+		Assert.assertEquals(0, manager.getMissedRuns(job));
+		Assert.assertTrue(overruns.get() > 0);
+	}
+
+	@Test
+	public void test_queued_runs_are_limited() {
+		final OverrunState state = new OverrunState(OverrunPolicy.queue(2));
+
+		// only the dropped run is reported
+		Assert.assertFalse(state.onOverrun());
+		Assert.assertFalse(state.onOverrun());
+		Assert.assertTrue(state.onOverrun());
+
+		Assert.assertEquals(1, state.getMissedRuns());
+		Assert.assertTrue(state.takePending());
+		Assert.assertTrue(state.takePending());
+		Assert.assertFalse(state.takePending());
+
+		// pausing the job drops queued runs
+		state.onOverrun();
+		state.clearPending();
+		Assert.assertFalse(state.takePending());
+	}
+}
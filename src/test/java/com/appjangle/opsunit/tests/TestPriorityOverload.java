@@ -0,0 +1,171 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.JobExecutor;
+import com.appjangle.opsunit.PrioritizedJob;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.configuration.Priority;
+import com.appjangle.opsunit.internal.PriorityDispatcher;
+
+/**
+ * Synthetic overload benchmark for the {@link PriorityDispatcher}, using a
+ * simulated clock.
+ * 
+ */
+public class TestPriorityOverload {
+
+	private static class SimulatedJob implements PrioritizedJob,
+			JobExecutor {
+
+		private final String name;
+		private final int frequency;
+		private final int priority;
+		private final int cost;
+
+		private long nextDue;
+		private boolean queued;
+		private long queuedSince;
+		private long maxWait;
+		private int runs;
+		private int skippedTicks;
+
+		@Override
+		public int getFrequency() {
+			return frequency;
+		}
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public List<Class<?>> getTests() {
+			return new ArrayList<Class<?>>(0);
+		}
+
+		@Override
+		public List<Response> getResponses() {
+			return new ArrayList<Response>(0);
+		}
+
+		@Override
+		public int getPriority() {
+			return priority;
+		}
+
+		@Override
+		public void run(final JobCallback callback) {
+			callback.onDone();
+		}
+
+		public SimulatedJob(final String name, final int frequency,
+				final int priority, final int cost) {
+			super();
+			this.name = name;
+			this.frequency = frequency;
+			this.priority = priority;
+			this.cost = cost;
+			this.nextDue = frequency;
+		}
+
+	}
+
+	@Test
+	public void test_critical_jobs_are_not_blocked_by_overload() {
+
+		final List<SimulatedJob> jobs = new ArrayList<SimulatedJob>();
+
+		final SimulatedJob critical = new SimulatedJob("critical",
+				Frequency.seconds(10), Priority.CRITICAL, Frequency.seconds(1));
+		jobs.add(critical);
+
+		// 30 jobs each running 25 s every 10 min: 125 % of capacity
+		for (int i = 0; i < 30; i++) {
+			jobs.add(new SimulatedJob("batch " + i, Frequency.minutes(10),
+					Priority.LOW, Frequency.seconds(25)));
+		}
+
+		final Map<JobExecutor, SimulatedJob> byExecutor = new HashMap<JobExecutor, SimulatedJob>();
+		for (final SimulatedJob job : jobs) {
+			byExecutor.put(job, job);
+		}
+
+		final PriorityDispatcher dispatcher = new PriorityDispatcher();
+		final long end = Frequency.minutes(6 * 60);
+		long now = 0;
+
+		while (now < end) {
+			for (final SimulatedJob job : jobs) {
+				while (job.nextDue <= now) {
+					if (job.queued) {
+						job.skippedTicks++;
+					} else {
+						job.queued = true;
+						job.queuedSince = job.nextDue;
+						dispatcher.add(job, job, job.nextDue);
+					}
+					job.nextDue += job.frequency;
+				}
+			}
+
+			final JobExecutor next = dispatcher.next(now);
+			if (next == null) {
+				now += 100;
+				continue;
+			}
+
+			final SimulatedJob job = byExecutor.get(next);
+			job.queued = false;
+			job.maxWait = Math.max(job.maxWait, now - job.queuedSince);
+			job.runs++;
+			now += job.cost;
+		}
+
+		// critical job only ever waits for the job running when it became due
+		Assert.assertTrue("Critical job waited " + critical.maxWait + " ms",
+				critical.maxWait <= Frequency.seconds(25));
+
+		// starvation protection: every batch job keeps running
+		for (final SimulatedJob job : jobs) {
+			if (job == critical) {
+				continue;
+			}
+			Assert.assertTrue(job.name + " ran " + job.runs + " times",
+					job.runs >= 10);
+			Assert.assertTrue(job.name + " waited " + job.maxWait + " ms",
+					job.maxWait <= (PriorityDispatcher.STARVATION_PERIODS + 1)
+							* job.frequency);
+			// low priority jobs skip at most the starvation period per run
+			Assert.assertTrue(job.name + " skipped " + job.skippedTicks
+					+ " ticks", job.skippedTicks <= (job.runs + 1)
+					* (PriorityDispatcher.STARVATION_PERIODS + 1));
+		}
+	}
+
+	@Test
+	public void test_starving_jobs_are_not_deferred() {
+		final SimulatedJob low = new SimulatedJob("low", Frequency.seconds(10),
+				Priority.LOW, 0);
+
+		final PriorityDispatcher dispatcher = new PriorityDispatcher();
+		dispatcher.add(low, low, 0);
+
+		Assert.assertNull(dispatcher.next(Frequency.seconds(10),
+				Priority.NORMAL));
+
+		// deferral ends once the job waited for more than the starvation
+		// periods
+		Assert.assertSame(low, dispatcher.next(
+				(PriorityDispatcher.STARVATION_PERIODS + 1)
+						* Frequency.seconds(10), Priority.NORMAL));
+	}
+}
@@ -0,0 +1,316 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import one.utils.jre.OneUtilsJre;
+import one.utils.server.ShutdownCallback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobExecutor.JobCallback;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.JobState;
+import com.appjangle.opsunit.OpsUnit;
+import com.appjangle.opsunit.Probe;
+import com.appjangle.opsunit.ProbeJob;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.RunReport;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.configuration.JobUtils;
+import com.appjangle.opsunit.internal.ProbeJobExecutor;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+import com.appjangle.opsunit.jre.templates.AlwaysPass;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestProbes {
+
+	private static ProbeJob job(final String name, final Probe probe,
+			final List<Response> responses) {
+		return job(name, probe, responses, new ArrayList<Class<?>>(0),
+				Frequency.minutes(60));
+	}
+
+	private static ProbeJob job(final String name, final Probe probe,
+			final List<Response> responses, final List<Class<?>> tests,
+			final int frequency) {
+		return new ProbeJob() {
+
+			@Override
+			public List<Probe> getProbes() {
+				return JobUtils.asList(probe);
+			}
+
+			@Override
+			public List<Class<?>> getTests() {
+				return tests;
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return responses;
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public int getFrequency() {
+				return frequency;
+			}
+		};
+	}
+
+	private static final Probe UNREACHABLE_PROBE = new Probe() {
+
+		@Override
+		public String getName() {
+			return "unreachable";
+		}
+
+		@Override
+		public int run() {
+			return UNREACHABLE;
+		}
+	};
+
+	@Test
+	public void test_probes_with_responses() throws Exception {
+
+		final AtomicBoolean fixed = new AtomicBoolean(false);
+
+		final Probe fixable = new Probe() {
+
+			@Override
+			public String getName() {
+				return "fixable";
+			}
+
+			@Override
+			public int run() {
+				return fixed.get() ? PASSED : UNREACHABLE;
+			}
+		};
+
+		final Probe broken = new Probe() {
+
+			@Override
+			public String getName() {
+				return "broken";
+			}
+
+			@Override
+			public int run() {
+				return TIMEOUT;
+			}
+		};
+
+		final List<Response> responses = new ArrayList<Response>(1);
+		responses.add(new Response() {
+
+			@Override
+			public void run(final JobContext context, final Callback callback) {
+				fixed.set(true);
+				callback.onSuccess();
+			}
+		});
+
+		final LinkedList<Job> jobs = new LinkedList<Job>();
+		final ProbeJob fixableJob = job("fixable job", fixable, responses);
+		jobs.add(fixableJob);
+		final ProbeJob brokenJob = job("broken job", broken,
+				new ArrayList<Response>(0));
+		jobs.add(brokenJob);
+
+		final List<Integer> results = new ArrayList<Integer>();
+
+		final RunReport report = OpsUnitJre.runOnce(jobs, new JobContext() {
+
+			@Override
+			public JobListener getListener() {
+				return new DefaultJobListener() {
+
+					@Override
+					public void onProbeCompleted(final Job j,
+							final Probe probe, final int result,
+							final long latency) {
+						synchronized (results) {
+							results.add(result);
+						}
+					}
+
+					@Override
+					public void onJobFailed(final Job j,
+							final Throwable lastException) {
+
+					}
+
+				};
+			}
+		}, true, Frequency.seconds(10)).get(20, TimeUnit.SECONDS);
+
+		Assert.assertTrue(fixed.get());
+		Assert.assertTrue(report.getStatus(fixableJob).isPassed());
+		Assert.assertFalse(report.getStatus(brokenJob).isPassed());
+		Assert.assertTrue(report.getStatus(brokenJob).getFailureMessage(),
+				report.getStatus(brokenJob).getFailureMessage()
+						.contains("broken"));
+
+		// fixable failed once, then passed after the response
+		Assert.assertEquals(3, results.size());
+		Assert.assertTrue(results.contains(Probe.UNREACHABLE));
+		Assert.assertTrue(results.contains(Probe.PASSED));
+		Assert.assertTrue(results.contains(Probe.TIMEOUT));
+	}
+
+	@Test
+	public void test_failing_listener_completes_job() {
+
+		final Probe probe = new Probe() {
+
+			@Override
+			public String getName() {
+				return "passing";
+			}
+
+			@Override
+			public int run() {
+				return PASSED;
+			}
+		};
+
+		final AtomicBoolean failed = new AtomicBoolean(false);
+		final AtomicBoolean done = new AtomicBoolean(false);
+
+		new ProbeJobExecutor(job("listener job", probe,
+				new ArrayList<Response>(0)), new JobContext() {
+
+			@Override
+			public JobListener getListener() {
+				return new DefaultJobListener() {
+
+					@Override
+					public void onProbeCompleted(final Job j,
+							final Probe probe, final int result,
+							final long latency) {
+						throw new RuntimeException("Listener failed.");
+					}
+
+					@Override
+					public void onJobFailed(final Job j,
+							final Throwable lastException) {
+						failed.set(true);
+					}
+
+				};
+			}
+		}).run(new JobCallback() {
+
+			@Override
+			public void onDone() {
+				done.set(true);
+			}
+		});
+
+		Assert.assertTrue(failed.get());
+		Assert.assertTrue(done.get());
+	}
+
+	@Test
+	public void test_failed_job_completes_with_default_listener() {
+
+		final AtomicBoolean done = new AtomicBoolean(false);
+
+		try {
+			new ProbeJobExecutor(job("unreachable job", UNREACHABLE_PROBE,
+					new ArrayList<Response>(0)), new JobContext() {
+
+				@Override
+				public JobListener getListener() {
+					return new DefaultJobListener();
+				}
+			}).run(new JobCallback() {
+
+				@Override
+				public void onDone() {
+					done.set(true);
+				}
+			});
+			Assert.fail("Default listener reports failed jobs by throwing.");
+		} catch (final RuntimeException e) {
+			Assert.assertTrue(e.getMessage(),
+					e.getMessage().contains("unreachable job"));
+		}
+
+		Assert.assertTrue(done.get());
+	}
+
+	@Test(timeout = 20000)
+	public void test_manager_stops_after_failed_probes()
+			throws InterruptedException {
+
+		final ProbeJob job = job("unreachable job", UNREACHABLE_PROBE,
+				new ArrayList<Response>(0), new ArrayList<Class<?>>(0), 50);
+
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.<Job> singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener();
+					}
+				});
+
+		manager.start();
+
+		Thread.sleep(300);
+
+		Assert.assertTrue(manager.getStatus().getJobStatus(job) != null);
+
+		manager.stop(new ShutdownCallback() {
+
+			@Override
+			public void onShutdownComplete() {
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				throw new RuntimeException(t);
+			}
+		});
+
+		Assert.assertEquals(JobState.IDLE, manager.getState(job));
+	}
+
+	@Test
+	public void test_probe_manager_rejects_test_classes() {
+		final List<Class<?>> tests = new ArrayList<Class<?>>(1);
+		tests.add(AlwaysPass.class);
+
+		try {
+			OpsUnit.createProbeManager(Collections.<Job> singletonList(job(
+					"mixed job", UNREACHABLE_PROBE, new ArrayList<Response>(0),
+					tests, Frequency.minutes(60))), OneUtilsJre
+					.newJreConcurrency(), new JobContext() {
+
+				@Override
+				public JobListener getListener() {
+					return new DefaultJobListener();
+				}
+			});
+			Assert.fail("Jobs with test classes should be rejected.");
+		} catch (final IllegalArgumentException e) {
+			// expected
+		}
+	}
+}
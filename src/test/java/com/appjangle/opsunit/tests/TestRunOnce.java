@@ -0,0 +1,110 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.RunReport;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.configuration.JobUtils;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestRunOnce {
+
+	public static class AlwaysFail {
+
+		@Test
+		public void test_fail() {
+			Assert.fail("failed on purpose");
+		}
+
+	}
+
+	private static Job job(final String name, final Class<?> test) {
+		return new Job() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				return JobUtils.asList(test);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				final ArrayList<Response> responses = new ArrayList<Response>(1);
+				responses.add(new Response() {
+
+					@Override
+					public void run(final JobContext context,
+							final Callback callback) {
+						callback.onFailure(new Exception(
+								"Responses should be skipped."));
+					}
+
+				});
+				return responses;
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+		};
+	}
+
+	@Test
+	public void test_run_jobs_once_in_parallel() throws Exception {
+
+		final LinkedList<Job> jobs = new LinkedList<Job>();
+		jobs.add(job("slow 1", SlowPass.class));
+		jobs.add(job("slow 2", SlowPass.class));
+		jobs.add(job("slow 3", SlowPass.class));
+		final Job failing = job("failing", AlwaysFail.class);
+		jobs.add(failing);
+
+		final RunReport report = OpsUnitJre.runOnce(jobs, new JobContext() {
+
+			@Override
+			public JobListener getListener() {
+				return new DefaultJobListener() {
+
+					@Override
+					public void onTestFailed(final Job j, final Class<?> test,
+							final String message, final Throwable t) {
+
+					}
+
+					@Override
+					public void onJobFailed(final Job j,
+							final Throwable lastException) {
+
+					}
+
+				};
+			}
+		}, false, Frequency.seconds(20)).get(30, TimeUnit.SECONDS);
+
+		Assert.assertFalse(report.isPassed());
+		Assert.assertEquals(4, report.getJobs().size());
+		Assert.assertEquals(1, report.getFailedJobs().size());
+		Assert.assertSame(failing, report.getFailedJobs().get(0));
+		Assert.assertTrue(report.getStatus(jobs.get(0)).isPassed());
+
+		// bounded by the slowest job rather than the sum of all jobs
+		Assert.assertTrue(report.toString(),
+				report.getDuration() < SlowPass.DURATION + 500);
+	}
+}
@@ -0,0 +1,214 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import one.utils.server.ShutdownCallback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.JobManager.StatusCallback;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.RunStatus;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+import com.appjangle.opsunit.jre.templates.AlwaysPass;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestStatusCache {
+
+	private static Job job(final String name) {
+		return new Job() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				final LinkedList<Class<?>> tests = new LinkedList<Class<?>>();
+
+				tests.add(AlwaysPass.class);
+
+				return tests;
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+		};
+	}
+
+	@Test
+	public void test_concurrent_requests_are_coalesced()
+			throws InterruptedException {
+
+		final Job job = job("status job");
+
+		final AtomicInteger runs = new AtomicInteger(0);
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener() {
+
+							@Override
+							public void onStartJob(final Job j) {
+								runs.incrementAndGet();
+							}
+
+						};
+					}
+				});
+
+		manager.start();
+
+		Assert.assertNull(manager.getStatus().getJobStatus(job));
+
+		final int requests = 10;
+		final CountDownLatch latch = new CountDownLatch(requests);
+		final List<RunStatus> reported = Collections
+				.synchronizedList(new ArrayList<RunStatus>(requests));
+
+		for (int i = 0; i < requests; i++) {
+			manager.runNow(job, 0, new StatusCallback() {
+
+				@Override
+				public void onStatus(final RunStatus status) {
+					reported.add(status);
+					latch.countDown();
+				}
+
+				@Override
+				public void onFailure(final Throwable t) {
+					Assert.fail(t.getMessage());
+				}
+			});
+		}
+
+		Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1, runs.get());
+		Assert.assertEquals(requests, reported.size());
+		Assert.assertTrue(reported.get(0).isPassed());
+
+		final RunStatus testStatus = manager.getStatus().getTestStatus(job,
+				AlwaysPass.class);
+		Assert.assertNotNull(testStatus);
+		Assert.assertTrue(testStatus.isPassed());
+
+		// a fresh status is served without running the job again
+		final CountDownLatch cached = new CountDownLatch(1);
+		manager.runNow(job, Frequency.minutes(1), new StatusCallback() {
+
+			@Override
+			public void onStatus(final RunStatus status) {
+				cached.countDown();
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				Assert.fail(t.getMessage());
+			}
+		});
+
+		Assert.assertTrue(cached.await(1, TimeUnit.SECONDS));
+		Assert.assertEquals(1, runs.get());
+		Assert.assertTrue(manager.getStatus().isFresh(job));
+	}
+
+	@Test
+	public void test_failing_callbacks_are_reported()
+			throws InterruptedException {
+
+		final Job job = job("callback job");
+		final List<Throwable> unexpected = Collections
+				.synchronizedList(new ArrayList<Throwable>());
+
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener() {
+
+							@Override
+							public void onUnexpectedFailure(final Job j,
+									final Throwable t) {
+								unexpected.add(t);
+							}
+
+						};
+					}
+				});
+
+		manager.start();
+
+		try {
+			manager.getState(job("unknown job"));
+			Assert.fail("Unknown jobs should be rejected.");
+		} catch (final IllegalArgumentException e) {
+			// expected
+		}
+
+		manager.runNow(job, 0, new StatusCallback() {
+
+			@Override
+			public void onStatus(final RunStatus status) {
+				throw new RuntimeException("Callback failed.");
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+			}
+		});
+
+		// the manager keeps running jobs
+		final CountDownLatch answered = new CountDownLatch(1);
+		manager.runNow(job, 0, new StatusCallback() {
+
+			@Override
+			public void onStatus(final RunStatus status) {
+				answered.countDown();
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				Assert.fail(t.getMessage());
+			}
+		});
+
+		Assert.assertTrue(answered.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(1, unexpected.size());
+		Assert.assertEquals("Callback failed.", unexpected.get(0).getMessage());
+
+		manager.stop(new ShutdownCallback() {
+
+			@Override
+			public void onShutdownComplete() {
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				throw new RuntimeException(t);
+			}
+		});
+	}
+}
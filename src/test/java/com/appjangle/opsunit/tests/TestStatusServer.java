@@ -0,0 +1,205 @@
+package com.appjangle.opsunit.tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import one.utils.server.ShutdownCallback;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.JobManager;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.jre.OpsUnitJre;
+import com.appjangle.opsunit.jre.StatusServer;
+import com.appjangle.opsunit.jre.templates.AlwaysPass;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestStatusServer {
+
+	private static Job job(final AtomicBoolean broken) {
+		return new Job() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				if (broken.get()) {
+					throw new IllegalStateException("Tests not available.");
+				}
+				final LinkedList<Class<?>> tests = new LinkedList<Class<?>>();
+
+				tests.add(AlwaysPass.class);
+
+				return tests;
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "server job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+		};
+	}
+
+	private static void stop(final StatusServer server,
+			final JobManager manager) {
+		server.stop();
+		manager.stop(new ShutdownCallback() {
+
+			@Override
+			public void onShutdownComplete() {
+			}
+
+			@Override
+			public void onFailure(final Throwable t) {
+				throw new RuntimeException(t);
+			}
+		});
+	}
+
+	@Test
+	public void test_status_and_control() throws Exception {
+
+		final Job job = job(new AtomicBoolean(false));
+
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener();
+					}
+				});
+
+		manager.start();
+
+		final StatusServer server = OpsUnitJre.startStatusServer(manager, 0);
+
+		try {
+			final String status = request(server, "GET", "/status");
+			Assert.assertTrue(status, status.contains("\"name\":\"server job\""));
+			Assert.assertTrue(status, status.contains("\"state\":\"IDLE\""));
+			Assert.assertTrue(status, status.contains("\"queueDepth\":0"));
+
+			request(server, "POST", "/jobs/server%20job/pause");
+			Assert.assertTrue(manager.isPaused(job));
+
+			request(server, "POST", "/jobs/server%20job/resume");
+			Assert.assertFalse(manager.isPaused(job));
+
+			request(server, "POST", "/jobs/server%20job/run");
+
+			final long start = System.currentTimeMillis();
+			while (manager.getStatus().getJobStatus(job) == null) {
+				Assert.assertTrue(System.currentTimeMillis() - start < 10000);
+				Thread.sleep(10);
+			}
+
+			// the status document is refreshed in the background
+			String afterRun = request(server, "GET", "/status");
+			while (!afterRun.contains("\"outcome\":\"PASSED\"")) {
+				Assert.assertTrue(afterRun,
+						System.currentTimeMillis() - start < 10000);
+				Thread.sleep(10);
+				afterRun = request(server, "GET", "/status");
+			}
+
+		} finally {
+			stop(server, manager);
+		}
+	}
+
+	@Test
+	public void test_failed_refresh_is_reported() throws Exception {
+
+		final AtomicBoolean broken = new AtomicBoolean(false);
+		final Job job = job(broken);
+
+		final JobManager manager = OpsUnitJre.createManager(
+				Collections.singletonList(job), new JobContext() {
+
+					@Override
+					public JobListener getListener() {
+						return new DefaultJobListener();
+					}
+				});
+
+		manager.start();
+
+		final StatusServer server = OpsUnitJre.startStatusServer(manager, 0);
+
+		try {
+			broken.set(true);
+
+			// control requests still succeed and trigger a refresh
+			request(server, "POST", "/jobs/server%20job/pause");
+			Assert.assertTrue(manager.isPaused(job));
+
+			final long start = System.currentTimeMillis();
+			String status = request(server, "GET", "/status");
+			while (!status.contains("\"refreshError\"")) {
+				Assert.assertTrue(status,
+						System.currentTimeMillis() - start < 10000);
+				Thread.sleep(10);
+				status = request(server, "GET", "/status");
+			}
+			Assert.assertTrue(status, status.contains("Tests not available."));
+			// last known status is still served
+			Assert.assertTrue(status, status.contains("\"name\":\"server job\""));
+
+			request(server, "POST", "/jobs/server%20job/resume");
+			Assert.assertFalse(manager.isPaused(job));
+
+			broken.set(false);
+
+			while (status.contains("\"refreshError\"")) {
+				Assert.assertTrue(status,
+						System.currentTimeMillis() - start < 10000);
+				Thread.sleep(10);
+				status = request(server, "GET", "/status");
+			}
+		} finally {
+			stop(server, manager);
+		}
+	}
+
+	private static String request(final StatusServer server,
+			final String method, final String path) throws IOException {
+		final HttpURLConnection connection = (HttpURLConnection) new URL(
+				"http://127.0.0.1:" + server.getPort() + path)
+				.openConnection();
+		connection.setRequestMethod(method);
+
+		Assert.assertTrue(connection.getResponseCode() < 300);
+
+		final InputStream in = connection.getInputStream();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		final byte[] buffer = new byte[1024];
+		int read;
+		while ((read = in.read(buffer)) >= 0) {
+			out.write(buffer, 0, read);
+		}
+		in.close();
+		return new String(out.toByteArray(), "UTF-8");
+	}
+}
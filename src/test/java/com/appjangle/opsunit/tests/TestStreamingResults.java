@@ -0,0 +1,137 @@
+package com.appjangle.opsunit.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.appjangle.opsunit.Job;
+import com.appjangle.opsunit.JobContext;
+import com.appjangle.opsunit.JobExecutor.JobCallback;
+import com.appjangle.opsunit.JobListener;
+import com.appjangle.opsunit.Response;
+import com.appjangle.opsunit.configuration.Frequency;
+import com.appjangle.opsunit.configuration.JobUtils;
+import com.appjangle.opsunit.jre.internal.JUnitJobExecutor;
+import com.appjangle.opsunit.listener.DefaultJobListener;
+
+public class TestStreamingResults {
+
+	public static class ThreeFailures {
+
+		@Test
+		public void test_first() {
+			Assert.fail("first");
+		}
+
+		@Test
+		public void test_second() {
+			Assert.fail("second");
+		}
+
+		@Test
+		public void test_third() {
+			Assert.fail("third");
+		}
+
+	}
+
+	private static List<String> run(final boolean failFast,
+			final List<String> completed) throws InterruptedException {
+		final Job job = new Job() {
+
+			@Override
+			public List<Class<?>> getTests() {
+				return JobUtils.asList(ThreeFailures.class);
+			}
+
+			@Override
+			public List<Response> getResponses() {
+				return new ArrayList<Response>(0);
+			}
+
+			@Override
+			public String getName() {
+				return "failing job";
+			}
+
+			@Override
+			public int getFrequency() {
+				return Frequency.minutes(60);
+			}
+		};
+
+		final List<String> failed = Collections
+				.synchronizedList(new ArrayList<String>());
+
+		final JobListener listener = new DefaultJobListener() {
+
+			@Override
+			public void onTestMethodFailed(final Job j, final Class<?> test,
+					final String method, final String message,
+					final Throwable t) {
+				failed.add(method);
+			}
+
+			@Override
+			public void onTestMethodCompleted(final Job j,
+					final Class<?> test, final String method,
+					final long duration) {
+				completed.add(method);
+			}
+
+			@Override
+			public void onTestFailed(final Job j, final Class<?> test,
+					final String message, final Throwable t) {
+
+			}
+
+			@Override
+			public void onJobFailed(final Job j, final Throwable lastException) {
+
+			}
+
+		};
+
+		final CountDownLatch done = new CountDownLatch(1);
+		new JUnitJobExecutor(job, new JobContext() {
+
+			@Override
+			public JobListener getListener() {
+				return listener;
+			}
+		}, false, failFast).run(new JobCallback() {
+
+			@Override
+			public void onDone() {
+				done.countDown();
+			}
+		});
+
+		Assert.assertTrue(done.await(10, TimeUnit.SECONDS));
+		return failed;
+	}
+
+	@Test
+	public void test_all_failures_are_reported() throws InterruptedException {
+		final List<String> completed = new ArrayList<String>();
+		final List<String> failed = run(false, completed);
+
+		Assert.assertEquals(3, failed.size());
+		Assert.assertEquals(3, completed.size());
+		Assert.assertTrue(failed.contains("test_second"));
+	}
+
+	@Test
+	public void test_fail_fast_stops_class() throws InterruptedException {
+		final List<String> completed = new ArrayList<String>();
+		final List<String> failed = run(true, completed);
+
+		Assert.assertEquals(1, failed.size());
+		Assert.assertEquals(1, completed.size());
+	}
+}